@@ -0,0 +1,59 @@
+package com.slyvr.chat.benchmarks;
+
+import org.bukkit.ChatColor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Deterministic input texts for the benchmarks.
+ *
+ * @since 1.0.0
+ */
+final class BenchmarkTexts {
+
+    private static final String ASCII_WORDS = "the quick brown fox jumps over the lazy dog while players read the rules";
+    private static final String UNICODE_WORDS = "éàü ßøñ привет мир γειά σου 你好世界 ✔ » ★ ☠ 한국어 テキスト";
+
+    private static final char[] CODES = {'6', 'l', 'f', 'o', 'c', 'n', 'a', 'r', 'e', 'm', 'b', 'k'};
+
+    private BenchmarkTexts() {
+    }
+
+    /**
+     * Creates a text of the given kind and visible length.
+     *
+     * @param unicode   True to use non-latin characters, otherwise false.
+     * @param formatted True to add a formatting code every few words, otherwise false.
+     * @param length    The number of visible characters.
+     *
+     * @return The created text
+     */
+    @NotNull
+    static String create(boolean unicode, boolean formatted, int length) {
+        String words = unicode ? UNICODE_WORDS : ASCII_WORDS;
+        StringBuilder builder = new StringBuilder(length * 2);
+
+        int code = 0;
+        for (int i = 0; i < length; i++) {
+            char character = words.charAt(i % words.length());
+
+            if (formatted && character == ' ' && (i % 3) == 0)
+                builder.append(ChatColor.COLOR_CHAR).append(CODES[code++ % CODES.length]);
+
+            builder.append(character);
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Gets the visible length of a text of the given size.
+     *
+     * @param size The size of the text, either "SHORT" or "LONG".
+     *
+     * @return The visible length
+     */
+    static int getLength(@NotNull String size) {
+        return "LONG".equals(size) ? 2000 : 40;
+    }
+
+}
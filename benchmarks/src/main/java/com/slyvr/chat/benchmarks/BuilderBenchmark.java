@@ -0,0 +1,75 @@
+package com.slyvr.chat.benchmarks;
+
+import com.slyvr.chat.ChatTextBuilder;
+import com.slyvr.chat.style.TextColor;
+import com.slyvr.chat.style.TextStyle;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks building texts out of multiple parts.
+ *
+ * @since 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BuilderBenchmark {
+
+    private static final TextColor[] COLORS = TextColor.values();
+
+    @Param({"false", "true"})
+    public boolean unicode;
+
+    @Param({"10", "500"})
+    public int parts;
+
+    private String[] texts;
+    private ChatTextBuilder builder;
+
+    @Setup
+    public void setup() {
+        this.texts = new String[parts];
+
+        for (int i = 0; i < parts; i++)
+            this.texts[i] = BenchmarkTexts.create(unicode, false, 8 + (i % 16));
+
+        this.builder = append();
+    }
+
+    @Benchmark
+    public ChatTextBuilder append() {
+        ChatTextBuilder result = new ChatTextBuilder();
+
+        for (int i = 0; i < texts.length; i++)
+            result.append(texts[i], COLORS[i % COLORS.length], (i & 1) == 0 ? TextStyle.BOLD : null);
+
+        return result;
+    }
+
+    @Benchmark
+    public String appendWithFormatting() {
+        return append().getTextWithFormatting();
+    }
+
+    @Benchmark
+    public TextComponent[] toTextComponent() {
+        return builder.toTextComponent();
+    }
+
+}
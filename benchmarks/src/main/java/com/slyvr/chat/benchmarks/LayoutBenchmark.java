@@ -0,0 +1,63 @@
+package com.slyvr.chat.benchmarks;
+
+import com.slyvr.chat.utils.ChatTextUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks measuring, splitting and aligning texts.
+ *
+ * @since 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LayoutBenchmark {
+
+    @Param({"false", "true"})
+    public boolean unicode;
+
+    @Param({"false", "true"})
+    public boolean formatted;
+
+    @Param({"SHORT", "LONG"})
+    public String size;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        this.text = BenchmarkTexts.create(unicode, formatted, BenchmarkTexts.getLength(size));
+    }
+
+    @Benchmark
+    public int getTextWidth() {
+        return ChatTextUtils.getTextWidth(text);
+    }
+
+    @Benchmark
+    public List<String> split() {
+        return ChatTextUtils.split(text, 4);
+    }
+
+    @Benchmark
+    public List<String> alignToCenter() {
+        return ChatTextUtils.align(text, 6);
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.slyvr.chat.benchmarks;
+
+import com.slyvr.chat.BroadcastReport;
+import com.slyvr.chat.ChatText;
+import com.slyvr.chat.ChatTextSection;
+import com.slyvr.chat.style.TextAlignment;
+import com.slyvr.chat.style.TextColor;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks sending text-sections to offline players, reusing a section rendered once during the setup.
+ *
+ * @see SectionBuildBenchmark
+ * @since 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SectionBenchmark {
+
+    private static final TextAlignment[] ALIGNMENTS = TextAlignment.values();
+
+    @Param({"false", "true"})
+    public boolean unicode;
+
+    @Param({"false", "true"})
+    public boolean formatted;
+
+    @Param({"SHORT", "LONG"})
+    public String size;
+
+    @Param({"20"})
+    public int lines;
+
+    @Param({"100"})
+    public int players;
+
+    private final long[] sink = new long[1];
+
+    private String[] texts;
+    private ChatTextSection section;
+    private Player player;
+    private List<Player> recipients;
+
+    @Setup
+    public void setup() {
+        this.texts = new String[lines];
+
+        for (int i = 0; i < lines; i++)
+            this.texts[i] = BenchmarkTexts.create(unicode, formatted, BenchmarkTexts.getLength(size) + i);
+
+        this.section = createSection(texts);
+        this.section.toPayload();
+
+        this.player = StubPlayer.create("Player", sink);
+        this.recipients = new ArrayList<>(players);
+
+        for (int i = 0; i < players; i++)
+            this.recipients.add(StubPlayer.create("Player" + i, sink));
+    }
+
+    @Benchmark
+    public long send() {
+        section.sendSection(player);
+        return sink[0];
+    }
+
+    @Benchmark
+    public BroadcastReport broadcast() {
+        return section.broadcast(recipients);
+    }
+
+    /**
+     * Creates a new section containing all the benchmarked texts, none of its lines being laid out yet.
+     *
+     * @param texts The texts to append, one per line.
+     *
+     * @return The created section
+     */
+    @NotNull
+    static ChatTextSection createSection(@NotNull String[] texts) {
+        ChatTextSection result = new ChatTextSection();
+
+        for (int i = 0; i < texts.length; i++) {
+            if ((i & 1) == 0)
+                result.append(texts[i], ALIGNMENTS[i % ALIGNMENTS.length]);
+            else
+                result.append(new ChatText(texts[i], TextColor.GOLD), i % 5);
+        }
+
+        return result;
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.slyvr.chat.benchmarks;
+
+import com.slyvr.chat.ChatPayload;
+import com.slyvr.chat.utils.TextLayoutCache;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks building text-sections, laying out all their lines, and sending them to an offline player.
+ * <p>
+ * The shared layout cache is cleared before every invocation, so the benchmarks measure laying out every line rather
+ * than cache hits.
+ *
+ * @see SectionBenchmark
+ * @since 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SectionBuildBenchmark {
+
+    @Param({"false", "true"})
+    public boolean unicode;
+
+    @Param({"false", "true"})
+    public boolean formatted;
+
+    @Param({"SHORT", "LONG"})
+    public String size;
+
+    @Param({"20"})
+    public int lines;
+
+    private final long[] sink = new long[1];
+
+    private String[] texts;
+    private Player player;
+
+    @Setup
+    public void setup() {
+        this.texts = new String[lines];
+
+        for (int i = 0; i < lines; i++)
+            this.texts[i] = BenchmarkTexts.create(unicode, formatted, BenchmarkTexts.getLength(size) + i);
+
+        this.player = StubPlayer.create("Player", sink);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearLayouts() {
+        TextLayoutCache.getShared().clear();
+    }
+
+    @Benchmark
+    public ChatPayload build() {
+        return SectionBenchmark.createSection(texts).toPayload();
+    }
+
+    @Benchmark
+    public long buildAndSend() {
+        SectionBenchmark.createSection(texts).sendSection(player);
+        return sink[0];
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.slyvr.chat.benchmarks;
+
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.chat.ComponentSerializer;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+
+/**
+ * Creates offline players for the benchmarks, so the send paths can be measured without a server.
+ * <p>
+ * Sent components are serialized to json the same way the server does it, and the serialized length is accumulated so
+ * the work cannot be eliminated by the JIT.
+ *
+ * @since 1.0.0
+ */
+final class StubPlayer {
+
+    private StubPlayer() {
+    }
+
+    /**
+     * Creates a new offline player.
+     *
+     * @param name The name of the player.
+     * @param sink The sink accumulating the serialized length of every message sent to the player.
+     *
+     * @return The created player
+     */
+    @NotNull
+    static Player create(@NotNull String name, @NotNull long[] sink) {
+        UUID uuid = UUID.nameUUIDFromBytes(name.getBytes());
+        Player.Spigot spigot = new StubSpigot(sink);
+
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "spigot":
+                    return spigot;
+                case "getName":
+                case "getDisplayName":
+                    return name;
+                case "getUniqueId":
+                    return uuid;
+                case "isOnline":
+                    return true;
+                case "sendMessage":
+                    if (args != null && args.length == 1 && args[0] instanceof String)
+                        sink[0] += ((String) args[0]).length();
+                    else if (args != null && args.length == 1 && args[0] instanceof String[])
+                        for (String message : (String[]) args[0])
+                            sink[0] += message.length();
+                    return null;
+                case "hashCode":
+                    return uuid.hashCode();
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "StubPlayer{" + name + '}';
+                default:
+                    return getDefaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    private static Object getDefaultValue(@NotNull Class<?> type) {
+        if (!type.isPrimitive() || type == void.class)
+            return null;
+
+        if (type == boolean.class)
+            return false;
+        if (type == char.class)
+            return (char) 0;
+        if (type == long.class)
+            return 0L;
+        if (type == float.class)
+            return 0F;
+        if (type == double.class)
+            return 0D;
+        if (type == byte.class)
+            return (byte) 0;
+        if (type == short.class)
+            return (short) 0;
+
+        return 0;
+    }
+
+    private static final class StubSpigot extends Player.Spigot {
+
+        private final long[] sink;
+
+        private StubSpigot(@NotNull long[] sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void sendMessage(@NotNull BaseComponent component) {
+            this.sink[0] += ComponentSerializer.toString(component).length();
+        }
+
+        @Override
+        public void sendMessage(@NotNull BaseComponent... components) {
+            this.sink[0] += ComponentSerializer.toString(components).length();
+        }
+
+        @Override
+        public void sendMessage(@NotNull ChatMessageType position, @NotNull BaseComponent... components) {
+            this.sendMessage(components);
+        }
+
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.slyvr.chat;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents the report of a chat-payload sent to multiple players.
+ *
+ * @since 1.0.0
+ */
+public final class BroadcastReport {
+
+    private final int recipients;
+    private final int messages;
+    private final long elapsed;
+
+    /**
+     * Constructs a new broadcast report.
+     *
+     * @param recipients The number of players the payload was sent to.
+     * @param messages   The number of chat messages sent to each player.
+     * @param elapsed    The time the broadcast took in nanoseconds.
+     */
+    BroadcastReport(int recipients, int messages, long elapsed) {
+        this.recipients = recipients;
+        this.messages = messages;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Gets the number of players the payload was sent to.
+     *
+     * @return The number of players the payload was sent to
+     */
+    public int getRecipients() {
+        return recipients;
+    }
+
+    /**
+     * Gets the number of chat messages sent to each player.
+     *
+     * @return The number of chat messages sent to each player
+     */
+    public int getMessages() {
+        return messages;
+    }
+
+    /**
+     * Gets the time the broadcast took.
+     *
+     * @param unit The unit to get the time in.
+     *
+     * @return The time the broadcast took in the given unit
+     */
+    public long getElapsed(@NotNull TimeUnit unit) {
+        return unit.convert(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the time the broadcast took in nanoseconds.
+     *
+     * @return The time the broadcast took in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return "BroadcastReport{" +
+                "recipients=" + recipients +
+                ", messages=" + messages +
+                ", elapsed=" + elapsed +
+                '}';
+    }
+
+}
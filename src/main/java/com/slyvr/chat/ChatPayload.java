@@ -0,0 +1,383 @@
+package com.slyvr.chat;
+
+import com.google.common.base.Preconditions;
+import com.slyvr.chat.metrics.ChatMetric;
+import com.slyvr.chat.metrics.ChatMetrics;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+import net.md_5.bungee.chat.ComponentSerializer;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Represents a rendered chat-payload, composed of one or more chat messages ready to be sent to players.
+ * <p>
+ * A payload is built once and reused as-is for every recipient, so sending the same payload to many players doesn't
+ * rebuild any of its components.
+ *
+ * @since 1.0.0
+ */
+public final class ChatPayload {
+
+    /**
+     * The maximum length of the serialized json of a single chat message accepted by the client.
+     */
+    public static final int MAXIMUM_MESSAGE_LENGTH = 262144;
+
+    // Length of the serialized line separator, including the comma preceding it.
+    private static final int SEPARATOR_LENGTH = 16;
+
+    private final BaseComponent[][] messages;
+    private final int components;
+
+    /**
+     * Constructs a new chat-payload. The given messages are not copied and must not be modified afterwards.
+     *
+     * @param messages The messages of this payload, each one sent as a single chat message.
+     */
+    ChatPayload(@NotNull BaseComponent[][] messages) {
+        this.messages = messages;
+
+        int count = 0;
+        for (BaseComponent[] message : messages)
+            count += message.length;
+
+        this.components = count;
+    }
+
+    /**
+     * Gets the number of chat messages this payload contains.
+     *
+     * @return The number of chat messages this payload contains
+     */
+    public int size() {
+        return messages.length;
+    }
+
+    /**
+     * Gets a copy of the components of the message at the given index.
+     *
+     * @param index The index of the message.
+     *
+     * @return A copy of the message's components
+     *
+     * @throws IndexOutOfBoundsException If the given index is invalid.
+     */
+    @NotNull
+    public BaseComponent[] getMessage(int index) {
+        if (index < 0 || index >= messages.length)
+            throw new IndexOutOfBoundsException("The index must be between 0 and " + (messages.length - 1) + '!');
+
+        BaseComponent[] message = messages[index];
+        BaseComponent[] result = new BaseComponent[message.length];
+
+        for (int i = 0; i < result.length; i++)
+            result[i] = message[i].duplicate();
+
+        return result;
+    }
+
+    /**
+     * Joins the messages of this payload into as few messages as possible, separated by new lines.
+     *
+     * @return This payload if it contains a single message, otherwise the coalesced payload
+     *
+     * @see #coalesce(int)
+     */
+    @NotNull
+    public ChatPayload coalesce() {
+        return coalesce(MAXIMUM_MESSAGE_LENGTH);
+    }
+
+    /**
+     * Joins the messages of this payload into as few messages as possible, separated by new lines, while keeping the
+     * serialized json of every joined message under the given length.
+     * <p>
+     * Each message is serialized once to measure it, and a message longer than the given length is kept on its own.
+     *
+     * @param maximumLength The maximum length of the serialized json of a joined message.
+     *
+     * @return This payload if it contains a single message, otherwise the coalesced payload
+     *
+     * @throws IllegalArgumentException If the maximum length is not positive.
+     */
+    @NotNull
+    public ChatPayload coalesce(int maximumLength) {
+        Preconditions.checkArgument(maximumLength > 0, "Maximum length must be positive!");
+
+        if (messages.length <= 1)
+            return this;
+
+        int[] lengths = new int[messages.length];
+        for (int i = 0; i < lengths.length; i++)
+            lengths[i] = measure(messages[i]);
+
+        return coalesce(maximumLength, lengths);
+    }
+
+    /**
+     * Joins the messages of this payload into as few messages as possible, using the already known serialized length
+     * of every message.
+     *
+     * @param maximumLength The maximum length of the serialized json of a joined message.
+     * @param lengths       The serialized length of every message of this payload.
+     *
+     * @return This payload if it contains a single message, otherwise the coalesced payload
+     */
+    @NotNull
+    ChatPayload coalesce(int maximumLength, @NotNull int[] lengths) {
+        if (messages.length <= 1)
+            return this;
+
+        List<BaseComponent[]> result = new ArrayList<>();
+        List<BaseComponent> current = new ArrayList<>();
+        int length = 0;
+
+        for (int i = 0; i < messages.length; i++) {
+            int message_length = lengths[i] + SEPARATOR_LENGTH;
+
+            if (!current.isEmpty() && length + message_length > maximumLength) {
+                result.add(join(current));
+
+                current.clear();
+                length = 0;
+            }
+
+            if (!current.isEmpty())
+                current.add(new TextComponent("\n"));
+
+            Collections.addAll(current, messages[i]);
+            length += message_length;
+        }
+
+        result.add(join(current));
+        return new ChatPayload(result.toArray(new BaseComponent[0][]));
+    }
+
+    /**
+     * Gets the length of the serialized json of the given message.
+     *
+     * @param message The message to measure.
+     *
+     * @return The serialized length of the message
+     */
+    static int measure(@NotNull BaseComponent[] message) {
+        int result = ComponentSerializer.toString(message).length();
+
+        ChatMetrics.record(ChatMetric.SERIALIZED_LENGTH, result);
+        return result;
+    }
+
+    /**
+     * Sends and displays this payload to the given player.
+     *
+     * @param player The player to display this payload for.
+     */
+    public void send(@NotNull Player player) {
+        this.send(player, null);
+    }
+
+    /**
+     * Sends and displays this payload to the given player, attributing the send metrics to the given source.
+     *
+     * @param player The player to display this payload for.
+     * @param source The source of the send, such as the sending plugin's name, or null if unknown.
+     *
+     * @see ChatMetrics#record(ChatMetric, String, long)
+     */
+    public void send(@NotNull Player player, @Nullable String source) {
+        if (player == null)
+            return;
+
+        long start = ChatMetrics.start();
+
+        Player.Spigot spigot = player.spigot();
+        for (BaseComponent[] message : messages)
+            spigot.sendMessage(message);
+
+        recordSend(start, source, messages.length, components);
+    }
+
+    /**
+     * Records the metrics of a send to a single player.
+     *
+     * @param start      The start of the send returned by {@link ChatMetrics#start()}.
+     * @param messages   The number of sent messages.
+     * @param components The number of sent components.
+     */
+    static void recordSend(long start, int messages, int components) {
+        recordSend(start, null, messages, components);
+    }
+
+    /**
+     * Records the metrics of a send to a single player, attributed to the given source.
+     *
+     * @param start      The start of the send returned by {@link ChatMetrics#start()}.
+     * @param source     The source of the send, or null if unknown.
+     * @param messages   The number of sent messages.
+     * @param components The number of sent components.
+     */
+    static void recordSend(long start, @Nullable String source, int messages, int components) {
+        if (!ChatMetrics.isEnabled())
+            return;
+
+        ChatMetrics.stop(ChatMetric.SEND, source, start);
+        ChatMetrics.record(ChatMetric.MESSAGES_SENT, source, messages);
+        ChatMetrics.record(ChatMetric.COMPONENTS_SENT, source, components);
+    }
+
+    /**
+     * Sends and displays this payload to all the given players.
+     *
+     * @param players The players to display this payload for.
+     *
+     * @return The report of the broadcast
+     *
+     * @throws NullPointerException If the given players collection is null.
+     */
+    @NotNull
+    public BroadcastReport broadcast(@NotNull Collection<? extends Player> players) {
+        return broadcast(players, (String) null);
+    }
+
+    /**
+     * Sends and displays this payload to all the given players, attributing the send metrics to the given source.
+     *
+     * @param players The players to display this payload for.
+     * @param source  The source of the broadcast, such as the sending plugin's name, or null if unknown.
+     *
+     * @return The report of the broadcast
+     *
+     * @throws NullPointerException If the given players collection is null.
+     */
+    @NotNull
+    public BroadcastReport broadcast(@NotNull Collection<? extends Player> players, @Nullable String source) {
+        Preconditions.checkNotNull(players, "Players collection cannot be null!");
+
+        long start = System.nanoTime();
+        int recipients = 0;
+
+        for (Player player : players) {
+            if (player == null)
+                continue;
+
+            this.send(player, source);
+            recipients++;
+        }
+
+        return new BroadcastReport(recipients, messages.length, System.nanoTime() - start);
+    }
+
+    /**
+     * Sends and displays this payload to all the online players matching the given filter.
+     *
+     * @param filter The filter the players must match.
+     *
+     * @return The report of the broadcast
+     *
+     * @throws NullPointerException If the given filter is null.
+     */
+    @NotNull
+    public BroadcastReport broadcast(@NotNull Predicate<? super Player> filter) {
+        return broadcast(filter, null);
+    }
+
+    /**
+     * Sends and displays this payload to all the online players matching the given filter, attributing the send metrics
+     * to the given source.
+     *
+     * @param filter The filter the players must match.
+     * @param source The source of the broadcast, such as the sending plugin's name, or null if unknown.
+     *
+     * @return The report of the broadcast
+     *
+     * @throws NullPointerException If the given filter is null.
+     */
+    @NotNull
+    public BroadcastReport broadcast(@NotNull Predicate<? super Player> filter, @Nullable String source) {
+        Preconditions.checkNotNull(filter, "Players filter cannot be null!");
+
+        long start = System.nanoTime();
+        int recipients = 0;
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (!filter.test(player))
+                continue;
+
+            this.send(player, source);
+            recipients++;
+        }
+
+        return new BroadcastReport(recipients, messages.length, System.nanoTime() - start);
+    }
+
+    /**
+     * Sends and displays its own payload to every given player, the payload at an index being sent to the player at
+     * the same index.
+     *
+     * @param players  The players to display the payloads for.
+     * @param payloads The payload of every player.
+     *
+     * @return The report of the broadcast, counting the largest number of messages sent to a player
+     *
+     * @throws NullPointerException     If the given players or payloads list is null.
+     * @throws IllegalArgumentException If there isn't exactly one payload per player.
+     */
+    @NotNull
+    public static BroadcastReport broadcastPersonalized(@NotNull List<? extends Player> players, @NotNull List<ChatPayload> payloads) {
+        return broadcastPersonalized(players, payloads, null);
+    }
+
+    /**
+     * Sends and displays its own payload to every given player, attributing the send metrics to the given source.
+     *
+     * @param players  The players to display the payloads for.
+     * @param payloads The payload of every player.
+     * @param source   The source of the broadcast, such as the sending plugin's name, or null if unknown.
+     *
+     * @return The report of the broadcast, counting the largest number of messages sent to a player
+     *
+     * @throws NullPointerException     If the given players or payloads list is null.
+     * @throws IllegalArgumentException If there isn't exactly one payload per player.
+     * @see #broadcastPersonalized(List, List)
+     */
+    @NotNull
+    public static BroadcastReport broadcastPersonalized(@NotNull List<? extends Player> players, @NotNull List<ChatPayload> payloads, @Nullable String source) {
+        Preconditions.checkNotNull(players, "Players list cannot be null!");
+        Preconditions.checkNotNull(payloads, "Payloads list cannot be null!");
+        Preconditions.checkArgument(players.size() == payloads.size(), "Expected " + players.size() + " payloads but got " + payloads.size() + '!');
+
+        long start = System.nanoTime();
+        int recipients = 0;
+        int messages = 0;
+
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            ChatPayload payload = payloads.get(i);
+
+            if (player == null || payload == null)
+                continue;
+
+            payload.send(player, source);
+            recipients++;
+            messages = Math.max(messages, payload.messages.length);
+        }
+
+        return new BroadcastReport(recipients, messages, System.nanoTime() - start);
+    }
+
+    @NotNull
+    private static BaseComponent[] join(@NotNull List<BaseComponent> components) {
+        // The root component is empty and unformatted, so the joined components don't inherit any formatting.
+        return new BaseComponent[]{new TextComponent(components.toArray(new BaseComponent[0]))};
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.slyvr.chat;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.function.Predicate;
+
+/**
+ * Represents an object which can be rendered into a chat-payload.
+ *
+ * @since 1.0.0
+ */
+public interface ChatRenderable {
+
+    /**
+     * Renders this object into a chat-payload, unaffected by later modifications of this object.
+     *
+     * @return The rendered chat-payload
+     */
+    @NotNull
+    ChatPayload toPayload();
+
+    /**
+     * Renders this object once and sends it to all the given players.
+     *
+     * @param players The players to display this object for.
+     *
+     * @return The report of the broadcast
+     *
+     * @throws NullPointerException If the given players collection is null.
+     */
+    @NotNull
+    default BroadcastReport broadcast(@NotNull Collection<? extends Player> players) {
+        return toPayload().broadcast(players);
+    }
+
+    /**
+     * Renders this object once and sends it to all the online players matching the given filter.
+     *
+     * @param filter The filter the players must match.
+     *
+     * @return The report of the broadcast
+     *
+     * @throws NullPointerException If the given filter is null.
+     */
+    @NotNull
+    default BroadcastReport broadcast(@NotNull Predicate<? super Player> filter) {
+        return toPayload().broadcast(filter);
+    }
+
+    /**
+     * Renders this object once and sends it to all the given players, attributing the send metrics to the given source.
+     *
+     * @param players The players to display this object for.
+     * @param source  The source of the broadcast, such as the sending plugin's name, or null if unknown.
+     *
+     * @return The report of the broadcast
+     *
+     * @throws NullPointerException If the given players collection is null.
+     */
+    @NotNull
+    default BroadcastReport broadcast(@NotNull Collection<? extends Player> players, @Nullable String source) {
+        return toPayload().broadcast(players, source);
+    }
+
+    /**
+     * Renders this object once and sends it to all the online players matching the given filter, attributing the send
+     * metrics to the given source.
+     *
+     * @param filter The filter the players must match.
+     * @param source The source of the broadcast, such as the sending plugin's name, or null if unknown.
+     *
+     * @return The report of the broadcast
+     *
+     * @throws NullPointerException If the given filter is null.
+     */
+    @NotNull
+    default BroadcastReport broadcast(@NotNull Predicate<? super Player> filter, @Nullable String source) {
+        return toPayload().broadcast(filter, source);
+    }
+
+}
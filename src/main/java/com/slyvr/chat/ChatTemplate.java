@@ -0,0 +1,360 @@
+package com.slyvr.chat;
+
+import com.google.common.base.Preconditions;
+import com.slyvr.chat.utils.ChatTextUtils;
+import com.slyvr.chat.utils.LegacyTextCursor;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.ChatColor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Represents a precompiled chat message with placeholder slots, such as {@code "&6[Shop] &f{player} bought {item}"}.
+ * <p>
+ * A template is compiled once into static segments, which are measured and converted into components up front, and
+ * slots carrying the formatting active where they appear. Rendering a template only measures and converts the values
+ * given for its slots, while the static segments are reused as-is.
+ * <p>
+ * Values are displayed with the formatting of their slot and never affect the formatting of the following segments.
+ * Chat-texts given as values keep their own formatting.
+ *
+ * @since 1.0.0
+ */
+public final class ChatTemplate {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{([A-Za-z0-9_.-]+)}");
+
+    private final String pattern;
+    private final String[] slots;
+    private final Segment[] segments;
+
+    private ChatTemplate(@NotNull String pattern, @NotNull String[] slots, @NotNull Segment[] segments) {
+        this.pattern = pattern;
+        this.slots = slots;
+        this.segments = segments;
+    }
+
+    /**
+     * Compiles the given pattern into a template. Color codes can be written using {@code '&'}, and placeholders
+     * using names between braces.
+     *
+     * @param pattern The pattern to compile.
+     *
+     * @return The compiled template
+     *
+     * @throws NullPointerException If the given pattern is null.
+     */
+    @NotNull
+    public static ChatTemplate compile(@NotNull String pattern) {
+        Preconditions.checkNotNull(pattern, "Pattern cannot be null!");
+
+        String translated = ChatColor.translateAlternateColorCodes('&', pattern);
+        Matcher matcher = PLACEHOLDER.matcher(translated);
+
+        List<String> slots = new ArrayList<>();
+        List<Segment> segments = new ArrayList<>();
+        LegacyTextCursor cursor = new LegacyTextCursor("");
+
+        String formatting = "";
+        int last_index = 0;
+
+        while (matcher.find()) {
+            formatting = addStatic(segments, cursor, formatting, translated.substring(last_index, matcher.start()));
+
+            String name = matcher.group(1);
+            int slot = slots.indexOf(name);
+
+            if (slot == -1) {
+                slot = slots.size();
+                slots.add(name);
+            }
+
+            segments.add(new Segment(slot, formatting));
+            last_index = matcher.end();
+        }
+
+        addStatic(segments, cursor, formatting, translated.substring(last_index));
+        return new ChatTemplate(pattern, slots.toArray(new String[0]), segments.toArray(new Segment[0]));
+    }
+
+    /**
+     * Gets the pattern this template was compiled from.
+     *
+     * @return The pattern this template was compiled from
+     */
+    @NotNull
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Gets the names of the slots of this template, in the order their values are expected.
+     *
+     * @return The names of the slots of this template
+     */
+    @NotNull
+    public List<String> getSlots() {
+        return Arrays.asList(slots.clone());
+    }
+
+    /**
+     * Formats this template with the given values into a text with formatting codes.
+     *
+     * @param values The values of the slots, in the order of {@link #getSlots()}.
+     *
+     * @return The formatted text
+     *
+     * @throws IllegalArgumentException If the number of values doesn't match the number of slots.
+     */
+    @NotNull
+    public String format(@NotNull Object... values) {
+        this.checkValues(values);
+
+        StringBuilder builder = new StringBuilder(pattern.length() + 16 * values.length);
+        boolean reset = false;
+
+        for (Segment segment : segments) {
+            if (segment.slot == -1) {
+                if (reset)
+                    builder.append(ChatColor.RESET).append(segment.formatting);
+
+                builder.append(segment.text);
+                reset = false;
+                continue;
+            }
+
+            Object value = values[segment.slot];
+            String text = toText(value);
+
+            if (value instanceof ChatText) {
+                builder.append(text);
+                reset = true;
+                continue;
+            }
+
+            if (reset)
+                builder.append(ChatColor.RESET).append(segment.formatting);
+
+            builder.append(text);
+            reset = text.indexOf(ChatColor.COLOR_CHAR) != -1;
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Formats this template with the given named values into a text with formatting codes.
+     *
+     * @param values The values of the slots mapped by their names.
+     *
+     * @return The formatted text
+     *
+     * @throws IllegalArgumentException If a slot doesn't have a value.
+     */
+    @NotNull
+    public String format(@NotNull Map<String, ?> values) {
+        return format(toArray(values));
+    }
+
+    /**
+     * Renders this template with the given values into a text-builder. The static segments share their components
+     * with this template until modified.
+     *
+     * @param values The values of the slots, in the order of {@link #getSlots()}.
+     *
+     * @return The rendered text-builder
+     *
+     * @throws IllegalArgumentException If the number of values doesn't match the number of slots.
+     */
+    @NotNull
+    public ChatTextBuilder toBuilder(@NotNull Object... values) {
+        this.checkValues(values);
+
+        ChatTextBuilder result = new ChatTextBuilder();
+
+        for (Segment segment : segments) {
+            if (segment.slot == -1) {
+                for (ChatText part : segment.parts)
+                    result.append(new ChatText(part));
+
+                continue;
+            }
+
+            Object value = values[segment.slot];
+
+            if (value instanceof ChatText)
+                result.append(new ChatText((ChatText) value));
+            else
+                result.append(new ChatText(ChatTextUtils.copyFormatting(segment.template, new TextComponent(toText(value)))));
+        }
+
+        return result;
+    }
+
+    /**
+     * Renders this template with the given named values into a text-builder.
+     *
+     * @param values The values of the slots mapped by their names.
+     *
+     * @return The rendered text-builder
+     *
+     * @throws IllegalArgumentException If a slot doesn't have a value.
+     */
+    @NotNull
+    public ChatTextBuilder toBuilder(@NotNull Map<String, ?> values) {
+        return toBuilder(toArray(values));
+    }
+
+    /**
+     * Gets the width of this template formatted with the given values, only measuring the values.
+     *
+     * @param values The values of the slots, in the order of {@link #getSlots()}.
+     *
+     * @return The width of the formatted template
+     *
+     * @throws IllegalArgumentException If the number of values doesn't match the number of slots.
+     * @see ChatTextUtils#getTextWidth(String)
+     */
+    public int getWidth(@NotNull Object... values) {
+        this.checkValues(values);
+
+        LegacyTextCursor cursor = null;
+        boolean gap = false;
+        int result = 0;
+
+        for (Segment segment : segments) {
+            if (segment.slot == -1) {
+                result += segment.width;
+
+                if (!segment.text.isEmpty())
+                    gap = segment.gap;
+
+                continue;
+            }
+
+            Object value = values[segment.slot];
+            String text = toText(value);
+
+            if (text.isEmpty())
+                continue;
+
+            if (cursor == null)
+                cursor = new LegacyTextCursor("");
+
+            String measured = value instanceof ChatText ? text : segment.formatting + text;
+
+            result += cursor.reset(measured).measureRemaining();
+            gap = cursor.hasTrailingGap();
+        }
+
+        // The last character of a text isn't followed by a gap.
+        return gap ? result - 1 : result;
+    }
+
+    @Override
+    public String toString() {
+        return "ChatTemplate{" +
+                "pattern='" + pattern + '\'' +
+                ", slots=" + Arrays.toString(slots) +
+                '}';
+    }
+
+    private void checkValues(@NotNull Object[] values) {
+        Preconditions.checkNotNull(values, "Values cannot be null!");
+        Preconditions.checkArgument(values.length == slots.length, "Expected " + slots.length + " values but got " + values.length + '!');
+    }
+
+    @NotNull
+    private Object[] toArray(@NotNull Map<String, ?> values) {
+        Preconditions.checkNotNull(values, "Values cannot be null!");
+
+        Object[] result = new Object[slots.length];
+
+        for (int i = 0; i < slots.length; i++) {
+            Preconditions.checkArgument(values.containsKey(slots[i]), "Missing value for slot '" + slots[i] + "'!");
+            result[i] = values.get(slots[i]);
+        }
+
+        return result;
+    }
+
+    @NotNull
+    private static String toText(Object value) {
+        if (value instanceof ChatText)
+            return ((ChatText) value).getTextWithFormatting();
+
+        return String.valueOf(value);
+    }
+
+    /**
+     * Measures and converts a static segment, then adds it to the given segments.
+     *
+     * @param segments   The segments to add to.
+     * @param cursor     The cursor to measure with.
+     * @param formatting The formatting active at the segment's start.
+     * @param text       The text of the segment.
+     *
+     * @return The formatting active at the segment's end
+     */
+    @NotNull
+    private static String addStatic(@NotNull List<Segment> segments, @NotNull LegacyTextCursor cursor, @NotNull String formatting, @NotNull String text) {
+        String measured = formatting + text;
+        int width = cursor.reset(measured).measureRemaining();
+
+        List<ChatText> parts = new ArrayList<>();
+        if (!text.isEmpty()) {
+            for (BaseComponent comp : TextComponent.fromLegacyText(measured)) {
+                TextComponent part = (TextComponent) comp;
+
+                if (!part.getText().isEmpty() || part.getExtra() != null)
+                    parts.add(new ChatText(part).freeze());
+            }
+        }
+
+        segments.add(new Segment(text, formatting, width, cursor.hasTrailingGap(), parts.toArray(new ChatText[0])));
+        return cursor.getFormatting();
+    }
+
+    private static final class Segment {
+
+        private final String text;
+        private final int slot;
+        private final String formatting;
+        private final int width;
+        private final boolean gap;
+
+        private final ChatText[] parts;
+        private final TextComponent template;
+
+        private Segment(@NotNull String text, @NotNull String formatting, int width, boolean gap, @NotNull ChatText[] parts) {
+            this.text = text;
+            this.slot = -1;
+            this.formatting = formatting;
+            this.width = width;
+            this.gap = gap;
+            this.parts = parts;
+            this.template = null;
+        }
+
+        private Segment(int slot, @NotNull String formatting) {
+            BaseComponent[] components = TextComponent.fromLegacyText(formatting + ' ');
+
+            this.text = null;
+            this.slot = slot;
+            this.formatting = formatting;
+            this.width = 0;
+            this.gap = false;
+            this.parts = null;
+            this.template = (TextComponent) components[components.length - 1];
+        }
+
+    }
+
+}
@@ -1,27 +1,55 @@
 package com.slyvr.chat;
 
 import com.google.common.base.Preconditions;
+import com.slyvr.chat.metrics.ChatMetric;
+import com.slyvr.chat.metrics.ChatMetrics;
 import com.slyvr.chat.style.TextColor;
 import com.slyvr.chat.style.TextStyle;
+import com.slyvr.chat.style.TextStyleSet;
+import net.md_5.bungee.api.ChatColor;
+import net.md_5.bungee.api.chat.BaseComponent;
 import net.md_5.bungee.api.chat.ClickEvent;
 import net.md_5.bungee.api.chat.HoverEvent;
 import net.md_5.bungee.api.chat.TextComponent;
+import net.md_5.bungee.chat.ComponentSerializer;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 /**
  * Represents a single chat-text.
+ * <p>
+ * A chat-text is stored in a compact form, and the text-component representing it is only built when needed, then
+ * reused until this chat-text is modified. A chat-text can also be {@link #freeze() frozen} into an immutable snapshot
+ * which can be shared between threads and players without being copied.
  *
  * @since 1.0.0
  */
-public final class ChatText {
+public final class ChatText implements ChatRenderable {
 
-    private final TextComponent component;
+    private static final TextColor[] COLORS = TextColor.values();
+    private static final TextStyle[] STYLES = {TextStyle.BOLD, TextStyle.ITALIC, TextStyle.UNDERLINE, TextStyle.OBFUSCATED, TextStyle.STRIKETHROUGH};
+
+    // Styles are stored as a bitmask of their masks, the explicitly removed ones being shifted by this amount.
+    private static final int REMOVED_SHIFT = 8;
+
+    private String text;
+    private byte color = -1;
+    private int styles;
+
+    private ClickEvent click_event;
+    private HoverEvent hover_event;
+
+    // Only set for texts created from components holding data the compact form cannot represent.
+    private TextComponent base;
+
+    private TextComponent component;
+    private String json;
+    private final boolean frozen;
 
     /**
      * Constructs a new chat-text.
@@ -35,7 +63,8 @@ public final class ChatText {
     public ChatText(@NotNull String text, @Nullable TextColor color, @Nullable TextStyle... styles) {
         Preconditions.checkNotNull(text, "The text content cannot be null!");
 
-        this.component = new TextComponent(text);
+        this.text = text;
+        this.frozen = false;
 
         this.color(color);
         this.style(styles);
@@ -51,20 +80,63 @@ public final class ChatText {
     public ChatText(@NotNull TextComponent comp) {
         Preconditions.checkNotNull(comp, "The text-component cannot be null!");
 
-        this.component = new TextComponent(comp);
+        this.text = comp.getText();
+        this.color = getColorIndex(comp.getColorRaw());
+        this.styles = getStyleMask(comp);
+        this.click_event = comp.getClickEvent();
+        this.hover_event = comp.getHoverEvent();
+        this.frozen = false;
+
+        List<BaseComponent> extra = comp.getExtra();
+
+        boolean custom_color = color == -1 && comp.getColorRaw() != null;
+        if (custom_color || (extra != null && !extra.isEmpty()) || comp.getFont() != null || comp.getInsertion() != null)
+            this.base = new TextComponent(comp);
     }
 
     /**
-     * Constructs a copy of the provided text.
+     * Constructs a copy of the provided text. The copy of a frozen chat-text is not frozen.
      *
      * @param text The text to copy from.
      *
      * @throws NullPointerException If the given text is null.
      */
     public ChatText(@NotNull ChatText text) {
+        this(text, false);
+    }
+
+    private ChatText(@NotNull ChatText text, boolean frozen) {
         Preconditions.checkNotNull(text, "Cannot copy a null chat text!");
 
-        this.component = new TextComponent(text.component);
+        this.text = text.text;
+        this.color = text.color;
+        this.styles = text.styles;
+        this.click_event = text.click_event;
+        this.hover_event = text.hover_event;
+        this.base = text.base;
+        this.frozen = frozen;
+
+        // Built components are never modified once built, so they can safely be shared.
+        this.component = frozen ? text.getComponent() : text.component;
+        this.json = text.json;
+    }
+
+    /**
+     * Constructs a new chat-text from its compact form.
+     *
+     * @param text       The text content of the chat-text.
+     * @param color      The ordinal of the text's color, or -1 for none.
+     * @param styles     The styles bitmask, including the explicitly removed styles.
+     * @param clickEvent The click-event of the text or null for none.
+     * @param hoverEvent The hover-event of the text or null for none.
+     */
+    ChatText(@NotNull String text, byte color, int styles, @Nullable ClickEvent clickEvent, @Nullable HoverEvent hoverEvent) {
+        this.text = text;
+        this.color = color;
+        this.styles = styles;
+        this.click_event = clickEvent;
+        this.hover_event = hoverEvent;
+        this.frozen = false;
     }
 
     /**
@@ -97,7 +169,25 @@ public final class ChatText {
      */
     @NotNull
     public String getTextWithFormatting() {
-        return component.toLegacyText();
+        if (base != null)
+            return getComponent().toLegacyText();
+
+        StringBuilder builder = new StringBuilder(text.length() + 12);
+        builder.append(getColor().toChatColor());
+
+        // Same order as the one used by the text-components.
+        if (hasStyle(TextStyle.BOLD))
+            builder.append(TextStyle.BOLD.toChatColor());
+        if (hasStyle(TextStyle.ITALIC))
+            builder.append(TextStyle.ITALIC.toChatColor());
+        if (hasStyle(TextStyle.UNDERLINE))
+            builder.append(TextStyle.UNDERLINE.toChatColor());
+        if (hasStyle(TextStyle.STRIKETHROUGH))
+            builder.append(TextStyle.STRIKETHROUGH.toChatColor());
+        if (hasStyle(TextStyle.OBFUSCATED))
+            builder.append(TextStyle.OBFUSCATED.toChatColor());
+
+        return builder.append(text).toString();
     }
 
     /**
@@ -107,7 +197,7 @@ public final class ChatText {
      */
     @NotNull
     public String getText() {
-        return component.getText();
+        return text;
     }
 
     /**
@@ -117,30 +207,83 @@ public final class ChatText {
      */
     @NotNull
     public TextColor getColor() {
-        return TextColor.valueOf(component.getColor().getName());
+        return color != -1 ? COLORS[color] : TextColor.WHITE;
     }
 
     /**
      * Gets all the styles applied to this text.
      *
      * @return All the styles applied to this text
+     * @see #getStyleSet()
      */
     @NotNull
     public TextStyle[] getStyles() {
-        ArrayList<TextStyle> result = new ArrayList<>(5);
+        return getStyleSet().toArray();
+    }
+
+    /**
+     * Gets the set of the styles applied to this text, without allocating.
+     *
+     * @return The set of the styles applied to this text
+     */
+    @NotNull
+    public TextStyleSet getStyleSet() {
+        return TextStyleSet.fromMask(styles);
+    }
+
+    /**
+     * Checks if the given style is applied to this text.
+     *
+     * @param style The style to check.
+     *
+     * @return True if the style is applied, otherwise false
+     * @see TextStyleSet#hasStyle(TextStyle)
+     */
+    public boolean hasStyle(@Nullable TextStyle style) {
+        return getStyleSet().hasStyle(style);
+    }
+
+    /**
+     * Gets the click-event called when clicking this text.
+     *
+     * @return The click-event of this text, or null if none
+     */
+    @Nullable
+    public ClickEvent getClickEvent() {
+        return click_event;
+    }
+
+    /**
+     * Gets the hover-event called when hovering over this text.
+     *
+     * @return The hover-event of this text, or null if none
+     */
+    @Nullable
+    public HoverEvent getHoverEvent() {
+        return hover_event;
+    }
 
-        if (component.isBold())
-            result.add(TextStyle.BOLD);
-        if (component.isItalic())
-            result.add(TextStyle.ITALIC);
-        if (component.isUnderlined())
-            result.add(TextStyle.UNDERLINE);
-        if (component.isObfuscated())
-            result.add(TextStyle.OBFUSCATED);
-        if (component.isStrikethrough())
-            result.add(TextStyle.STRIKETHROUGH);
+    /**
+     * Checks if this chat-text is frozen, meaning it cannot be modified.
+     *
+     * @return True if this chat-text is frozen, otherwise false
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
 
-        return result.toArray(new TextStyle[result.size()]);
+    /**
+     * Gets an immutable snapshot of this chat-text.
+     * <p>
+     * The snapshot builds its text-component right away and shares it with this chat-text until this chat-text is
+     * modified. Once published, a frozen chat-text can safely be shared between threads, and all its modifying methods
+     * throw an {@link IllegalStateException}.
+     *
+     * @return This chat-text if already frozen, otherwise a frozen snapshot of it
+     */
+    @NotNull
+    public ChatText freeze() {
+        return frozen ? this : new ChatText(this, true);
     }
 
     /**
@@ -149,11 +292,15 @@ public final class ChatText {
      * @param color The color to set.
      *
      * @return This chat-text's instance
+     *
+     * @throws IllegalStateException If this chat-text is frozen.
      */
     @NotNull
     public ChatText color(@Nullable TextColor color) {
+        this.prepareModification();
+
         if (color != null)
-            this.component.setColor(color.toBungeeChatColor());
+            this.color = (byte) color.ordinal();
 
         return this;
     }
@@ -164,15 +311,48 @@ public final class ChatText {
      * @param styles The styles to set.
      *
      * @return This chat-text's instance
+     *
+     * @throws IllegalStateException If this chat-text is frozen.
      */
     @NotNull
     public ChatText style(@Nullable TextStyle... styles) {
+        this.prepareModification();
+
         if (styles == null)
             return this;
 
         for (TextStyle style : styles) {
-            if (style != null)
-                style.apply(component);
+            if (style == null)
+                continue;
+
+            if (style == TextStyle.NONE) {
+                this.styles = TextStyleSet.ALL_STYLES << REMOVED_SHIFT;
+                continue;
+            }
+
+            int bit = style.getMask();
+            this.styles = (this.styles | bit) & ~(bit << REMOVED_SHIFT);
+        }
+
+        return this;
+    }
+
+    /**
+     * Applies all the styles of the given set to this text.
+     *
+     * @param styles The styles to set.
+     *
+     * @return This chat-text's instance
+     *
+     * @throws IllegalStateException If this chat-text is frozen.
+     */
+    @NotNull
+    public ChatText style(@Nullable TextStyleSet styles) {
+        this.prepareModification();
+
+        if (styles != null) {
+            int mask = styles.getMask();
+            this.styles = (this.styles | mask) & ~(mask << REMOVED_SHIFT);
         }
 
         return this;
@@ -184,10 +364,13 @@ public final class ChatText {
      * @param event The click-event to set or null for none.
      *
      * @return This chat-text's instance
+     *
+     * @throws IllegalStateException If this chat-text is frozen.
      */
     @NotNull
     public ChatText setClickEvent(@Nullable ClickEvent event) {
-        this.component.setClickEvent(event);
+        this.prepareModification();
+        this.click_event = event;
         return this;
     }
 
@@ -197,21 +380,83 @@ public final class ChatText {
      * @param event The hover-event to set or null for none.
      *
      * @return This chat-text's instance
+     *
+     * @throws IllegalStateException If this chat-text is frozen.
      */
     @NotNull
     public ChatText setHoverEvent(@Nullable HoverEvent event) {
-        this.component.setHoverEvent(event);
+        this.prepareModification();
+        this.hover_event = event;
         return this;
     }
 
     /**
-     * Builds and combine all the parts of this builder together into one text-component.
+     * Gets a copy of the text-component representing this chat-text. Modifying the returned component doesn't modify
+     * this chat-text.
      *
-     * @return The created text-component instance with all the parts combined
+     * @return The text-component representing this chat-text
      */
     @NotNull
     public TextComponent toTextComponent() {
-        return component;
+        return new TextComponent(getComponent());
+    }
+
+    /**
+     * Gets the text-component representing this chat-text, building it if needed. The returned component must not be
+     * modified.
+     *
+     * @return The text-component representing this chat-text
+     */
+    @NotNull
+    TextComponent getComponent() {
+        TextComponent result = component;
+        if (result != null)
+            return result;
+
+        result = base != null ? new TextComponent(base) : new TextComponent();
+        result.setText(text);
+
+        if (color != -1)
+            result.setColor(COLORS[color].toBungeeChatColor());
+
+        for (TextStyle style : STYLES) {
+            int bit = style.getMask();
+
+            if ((styles & bit) != 0)
+                style.apply(result);
+            else if ((styles & (bit << REMOVED_SHIFT)) != 0)
+                removeStyle(result, style);
+        }
+
+        result.setClickEvent(click_event);
+        result.setHoverEvent(hover_event);
+        return this.component = result;
+    }
+
+    /**
+     * Gets the serialized json of this chat-text.
+     * <p>
+     * The json is serialized once, then reused until this chat-text is modified. Copies and frozen snapshots share it
+     * with this chat-text until either of them is modified.
+     *
+     * @return The serialized json of this chat-text
+     */
+    @NotNull
+    public String toJson() {
+        String result = json;
+        if (result != null)
+            return result;
+
+        result = ComponentSerializer.toString(getComponent());
+
+        ChatMetrics.record(ChatMetric.SERIALIZED_LENGTH, result.length());
+        return this.json = result;
+    }
+
+    @NotNull
+    @Override
+    public ChatPayload toPayload() {
+        return new ChatPayload(new BaseComponent[][]{{getComponent()}});
     }
 
     /**
@@ -220,8 +465,115 @@ public final class ChatText {
      * @param player The player to display the text for.
      */
     public void sendText(@NotNull Player player) {
-        if (player != null)
-            player.spigot().sendMessage(component);
+        this.sendText(player, null);
+    }
+
+    /**
+     * Sends and display this text to the player, attributing the send metrics to the given source.
+     *
+     * @param player The player to display the text for.
+     * @param source The source of the send, such as the sending plugin's name, or null if unknown.
+     *
+     * @see ChatPayload#send(Player, String)
+     */
+    public void sendText(@NotNull Player player, @Nullable String source) {
+        if (player == null)
+            return;
+
+        long start = ChatMetrics.start();
+
+        player.spigot().sendMessage(getComponent());
+        ChatPayload.recordSend(start, source, 1, 1);
+    }
+
+    /**
+     * Gets the ordinal of the color of this chat-text.
+     *
+     * @return The ordinal of the color, or -1 if none
+     */
+    byte getColorOrdinal() {
+        return color;
+    }
+
+    /**
+     * Gets the styles bitmask of this chat-text, including the explicitly removed styles.
+     *
+     * @return The styles bitmask of this chat-text
+     */
+    int getStyleBits() {
+        return styles;
+    }
+
+    /**
+     * Checks if this chat-text holds data its compact form cannot represent, such as extras or custom colors.
+     *
+     * @return True if this chat-text cannot be represented by its compact form only, otherwise false
+     */
+    boolean isComplex() {
+        return base != null;
+    }
+
+    /**
+     * Makes sure this chat-text can be modified, and drops its built component and json.
+     *
+     * @throws IllegalStateException If this chat-text is frozen.
+     */
+    private void prepareModification() {
+        Preconditions.checkState(!frozen, "A frozen chat-text cannot be modified!");
+        this.component = null;
+        this.json = null;
+    }
+
+    private static byte getColorIndex(@Nullable ChatColor color) {
+        if (color == null)
+            return -1;
+
+        for (int i = 0; i < COLORS.length; i++) {
+            if (COLORS[i].toBungeeChatColor().equals(color))
+                return (byte) i;
+        }
+
+        return -1;
+    }
+
+    private static int getStyleMask(@NotNull BaseComponent comp) {
+        int result = 0;
+
+        result |= getStyleBits(TextStyle.OBFUSCATED, comp.isObfuscatedRaw());
+        result |= getStyleBits(TextStyle.BOLD, comp.isBoldRaw());
+        result |= getStyleBits(TextStyle.STRIKETHROUGH, comp.isStrikethroughRaw());
+        result |= getStyleBits(TextStyle.UNDERLINE, comp.isUnderlinedRaw());
+        result |= getStyleBits(TextStyle.ITALIC, comp.isItalicRaw());
+
+        return result;
+    }
+
+    private static int getStyleBits(@NotNull TextStyle style, @Nullable Boolean value) {
+        if (value == null)
+            return 0;
+
+        int bit = style.getMask();
+        return value ? bit : bit << REMOVED_SHIFT;
+    }
+
+    private static void removeStyle(@NotNull BaseComponent comp, @NotNull TextStyle style) {
+        switch (style) {
+            case OBFUSCATED:
+                comp.setObfuscated(false);
+                break;
+            case BOLD:
+                comp.setBold(false);
+                break;
+            case STRIKETHROUGH:
+                comp.setStrikethrough(false);
+                break;
+            case UNDERLINE:
+                comp.setUnderlined(false);
+                break;
+            case ITALIC:
+                comp.setItalic(false);
+                break;
+        }
     }
 
     @Override
@@ -233,20 +585,25 @@ public final class ChatText {
             return false;
 
         ChatText other = (ChatText) obj;
-        return component.equals(other.component);
+        return color == other.color
+                && styles == other.styles
+                && text.equals(other.text)
+                && Objects.equals(click_event, other.click_event)
+                && Objects.equals(hover_event, other.hover_event)
+                && Objects.equals(base, other.base);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(component);
+        return Objects.hash(text, color, styles, click_event, hover_event, base);
     }
 
     @Override
     public String toString() {
         return "ChatText{" +
-                "text='" + component.getText() + '\'' +
+                "text='" + text + '\'' +
                 ", color=" + getColor() +
                 ", styles=" + Arrays.toString(getStyles()) +
                 '}';
     }
-}
\ No newline at end of file
+}
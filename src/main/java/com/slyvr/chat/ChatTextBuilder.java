@@ -1,15 +1,25 @@
 package com.slyvr.chat;
 
 import com.google.common.base.Preconditions;
+import com.slyvr.chat.metrics.ChatMetric;
+import com.slyvr.chat.metrics.ChatMetrics;
+import com.slyvr.chat.style.TextAlignment;
 import com.slyvr.chat.style.TextColor;
 import com.slyvr.chat.style.TextStyle;
+import com.slyvr.chat.style.TextStyleSet;
+import com.slyvr.chat.utils.ChatTextUtils;
+import com.slyvr.chat.utils.FontWidthRegistry;
+import com.slyvr.chat.utils.LegacyTextCursor;
+import net.md_5.bungee.api.chat.BaseComponent;
 import net.md_5.bungee.api.chat.TextComponent;
+import net.md_5.bungee.chat.ComponentSerializer;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
@@ -18,12 +28,25 @@ import java.util.Objects;
  *
  * @since 1.0.0
  */
-public final class ChatTextBuilder implements Cloneable {
+public final class ChatTextBuilder implements ChatRenderable, Cloneable {
 
-    private final List<ChatText> parts = new ArrayList<>();
+    private List<ChatText> parts = new ArrayList<>();
     private int pointer = -1;
 
-    private String text;
+    // The formatted text is built lazily, only appending the parts added since the last build.
+    private StringBuilder text = new StringBuilder();
+    private int text_parts;
+    private String cached_text;
+
+    // Widths are measured lazily as well, each one packed with a flag telling if the part ends with a gap.
+    private int[] part_widths = new int[10];
+    private int measured_parts;
+    private long measured_version;
+    private int width;
+
+    // The json is kept along with the components it was serialized from, which are rebuilt when a part is modified.
+    private String json;
+    private TextComponent[] json_components;
 
     /**
      * Constructs a new text-builder.
@@ -33,7 +56,6 @@ public final class ChatTextBuilder implements Cloneable {
     public ChatTextBuilder(@NotNull ChatText... initial) {
         Preconditions.checkNotNull(initial, "The initial chat-texts collection cannot be null!");
 
-        this.text = "";
         this.append(initial);
     }
 
@@ -66,7 +88,7 @@ public final class ChatTextBuilder implements Cloneable {
      */
     @NotNull
     public String getRawText() {
-        return ChatColor.stripColor(text);
+        return ChatColor.stripColor(getTextWithFormatting());
     }
 
     /**
@@ -76,7 +98,94 @@ public final class ChatTextBuilder implements Cloneable {
      */
     @NotNull
     public String getTextWithFormatting() {
-        return text;
+        if (cached_text != null)
+            return cached_text;
+
+        for (int i = text_parts; i < parts.size(); i++)
+            this.text.append(parts.get(i).getTextWithFormatting());
+
+        this.text_parts = parts.size();
+        return this.cached_text = text.toString();
+    }
+
+    /**
+     * Gets the width of the text representing all the appended chat-texts.
+     * <p>
+     * The width of every part is measured once and kept up to date when the parts are modified through this text-builder,
+     * or when new glyph widths are registered.
+     *
+     * @return The width of the text
+     *
+     * @see ChatTextUtils#getTextWidth(String)
+     */
+    public int getWidth() {
+        this.measure();
+
+        int last = getLastVisiblePart();
+        if (last != -1 && (part_widths[last] & 1) != 0)
+            return width - 1;
+
+        return width;
+    }
+
+    /**
+     * Gets the width the chat-text at the given index takes in the text representing all the appended chat-texts.
+     *
+     * @param index The index to get.
+     *
+     * @return The width of the chat-text at the given index
+     *
+     * @throws IndexOutOfBoundsException If the given index is invalid.
+     */
+    public int getWidth(int index) {
+        if (!isValidIndex(index))
+            throw new IndexOutOfBoundsException("The index must be between 0 and " + (parts.size() - 1) + '!');
+
+        this.measure();
+
+        int packed = part_widths[index];
+        if ((packed & 1) != 0 && index == getLastVisiblePart())
+            return (packed >> 1) - 1;
+
+        return packed >> 1;
+    }
+
+    /**
+     * Gets the number of spaces required to align the text representing all the appended chat-texts.
+     *
+     * @param alignment The alignment to apply.
+     *
+     * @return The number of spaces required to align the text, or 0 if none
+     *
+     * @throws NullPointerException If the given alignment type is null.
+     */
+    public int getPadding(@NotNull TextAlignment alignment) {
+        return getPadding(alignment, ChatWidthProfile.DEFAULT);
+    }
+
+    /**
+     * Gets the number of spaces required to align the text representing all the appended chat-texts, in a chat of the
+     * given width profile.
+     *
+     * @param alignment The alignment to apply.
+     * @param profile   The width profile of the chat.
+     *
+     * @return The number of spaces required to align the text, or 0 if none
+     *
+     * @throws NullPointerException If the given alignment type or profile is null.
+     */
+    public int getPadding(@NotNull TextAlignment alignment, @NotNull ChatWidthProfile profile) {
+        Preconditions.checkNotNull(alignment, "Alignment type cannot be null!");
+        Preconditions.checkNotNull(profile, "Width profile cannot be null!");
+
+        switch (alignment) {
+            case CENTER:
+                return ChatTextUtils.getSpacesToCenter(getWidth(), profile.getWidth());
+            case RIGHT:
+                return ChatTextUtils.getSpacesToRight(getWidth(), profile.getWidth());
+            default:
+                return 0;
+        }
     }
 
     /**
@@ -96,9 +205,9 @@ public final class ChatTextBuilder implements Cloneable {
                 continue;
 
             this.parts.add(text);
-            this.text += text.getTextWithFormatting();
         }
 
+        this.cached_text = null;
         this.pointer = parts.size() - 1;
         return this;
     }
@@ -117,7 +226,7 @@ public final class ChatTextBuilder implements Cloneable {
         Preconditions.checkNotNull(text, "Cannot append a null text!");
 
         this.parts.add(new ChatText(text, color, styles));
-        this.text += text;
+        this.cached_text = null;
 
         this.pointer = parts.size() - 1;
         return this;
@@ -168,6 +277,8 @@ public final class ChatTextBuilder implements Cloneable {
 
     /**
      * Colors the selected chat-text part of this text-builder with the given color.
+     * <p>
+     * A frozen part, such as a pooled chat-text, is replaced by a modified copy instead.
      *
      * @param color The color to use.
      *
@@ -182,12 +293,15 @@ public final class ChatTextBuilder implements Cloneable {
         Preconditions.checkNotNull(color, "Color cannot be null!");
         Preconditions.checkArgument(pointer != -1, "There's no selected part to modify!");
 
-        this.parts.get(pointer).color(color);
+        this.getModifiablePart().color(color);
+        this.invalidate(pointer);
         return this;
     }
 
     /**
      * the selected chat-text part of this text-builder with the given styles.
+     * <p>
+     * A frozen part, such as a pooled chat-text, is replaced by a modified copy instead.
      *
      * @param styles The styles to set.
      *
@@ -202,7 +316,31 @@ public final class ChatTextBuilder implements Cloneable {
         Preconditions.checkNotNull(styles, "Styles collection cannot be null!");
         Preconditions.checkArgument(pointer != -1, "There's no selected part to modify!");
 
-        this.parts.get(pointer).style(styles);
+        this.getModifiablePart().style(styles);
+        this.restyled();
+        return this;
+    }
+
+    /**
+     * Styles the selected chat-text part of this text-builder with all the styles of the given set.
+     * <p>
+     * A frozen part, such as a pooled chat-text, is replaced by a modified copy instead.
+     *
+     * @param styles The styles to set.
+     *
+     * @return This text-builder's instance
+     *
+     * @throws NullPointerException  If the given styles set is null.
+     * @throws IllegalStateException If there isn't any part selected.
+     * @see #select(int)
+     */
+    @NotNull
+    public ChatTextBuilder style(@NotNull TextStyleSet styles) {
+        Preconditions.checkNotNull(styles, "Styles set cannot be null!");
+        Preconditions.checkArgument(pointer != -1, "There's no selected part to modify!");
+
+        this.getModifiablePart().style(styles);
+        this.restyled();
         return this;
     }
 
@@ -219,6 +357,8 @@ public final class ChatTextBuilder implements Cloneable {
      * Gets an array of base-components representing the combined parts of this text-builder.
      *
      * @return The array of base-components representing the combined parts of this text-builder
+     *
+     * @see ChatText#toTextComponent()
      */
     @NotNull
     public TextComponent[] toTextComponent() {
@@ -230,24 +370,84 @@ public final class ChatTextBuilder implements Cloneable {
         return result;
     }
 
+    /**
+     * Gets the serialized json of all the combined parts of this text-builder.
+     * <p>
+     * The json is serialized once, then reused until a part is appended or modified, including parts modified directly
+     * through {@link #getText(int)}.
+     *
+     * @return The serialized json of this text-builder
+     */
+    @NotNull
+    public String toJson() {
+        TextComponent[] components = new TextComponent[parts.size()];
+
+        for (int i = 0; i < components.length; i++)
+            components[i] = parts.get(i).getComponent();
+
+        if (json != null && isSameComponents(components))
+            return json;
+
+        String result = ComponentSerializer.toString(components);
+        ChatMetrics.record(ChatMetric.SERIALIZED_LENGTH, result.length());
+
+        this.json_components = components;
+        return this.json = result;
+    }
+
+    @NotNull
+    @Override
+    public ChatPayload toPayload() {
+        BaseComponent[] components = new BaseComponent[parts.size()];
+
+        for (int i = 0; i < components.length; i++)
+            components[i] = parts.get(i).freeze().getComponent();
+
+        return new ChatPayload(new BaseComponent[][]{components});
+    }
+
     /**
      * Sends and display this text to the given player.
      *
      * @param player The player to display the text for.
      */
     public void sendText(@NotNull Player player) {
-        if (player != null)
-            player.spigot().sendMessage(toTextComponent());
+        this.sendText(player, null);
+    }
+
+    /**
+     * Sends and display this text to the given player, attributing the send metrics to the given source.
+     *
+     * @param player The player to display the text for.
+     * @param source The source of the send, such as the sending plugin's name, or null if unknown.
+     *
+     * @see ChatPayload#send(Player, String)
+     */
+    public void sendText(@NotNull Player player, @Nullable String source) {
+        if (player == null)
+            return;
+
+        long start = ChatMetrics.start();
+        TextComponent[] components = new TextComponent[parts.size()];
+
+        for (int i = 0; i < components.length; i++)
+            components[i] = parts.get(i).getComponent();
+
+        player.spigot().sendMessage(components);
+        ChatPayload.recordSend(start, source, 1, components.length);
     }
 
     @Override
     public ChatTextBuilder clone() {
         try {
             ChatTextBuilder result = (ChatTextBuilder) super.clone();
-            result.text = text;
+            result.parts = new ArrayList<>(parts.size());
+            result.text = new StringBuilder(text);
+            result.part_widths = part_widths.clone();
 
-            for (int i = 0; i < result.size(); i++)
-                result.parts.set(i, new ChatText(parts.get(i)));
+            // Copies share their components with the original parts until either of them is modified.
+            for (ChatText part : parts)
+                result.parts.add(new ChatText(part));
 
             return result;
         } catch (CloneNotSupportedException e) {
@@ -279,10 +479,136 @@ public final class ChatTextBuilder implements Cloneable {
         return "ChatTextBuilder{" +
                 "parts=" + parts +
                 ", pointer=" + pointer +
-                ", text='" + text + '\'' +
+                ", text='" + getTextWithFormatting() + '\'' +
                 '}';
     }
 
+    /**
+     * Measures all the parts appended since the last measure.
+     */
+    private void measure() {
+        this.checkVersion();
+
+        if (measured_parts == parts.size())
+            return;
+
+        if (part_widths.length < parts.size())
+            this.part_widths = Arrays.copyOf(part_widths, Math.max(parts.size(), part_widths.length * 2));
+
+        LegacyTextCursor cursor = new LegacyTextCursor("");
+
+        for (int i = measured_parts; i < parts.size(); i++)
+            this.width += measure(cursor, i);
+
+        this.measured_parts = parts.size();
+    }
+
+    /**
+     * Gets the index of the last measured part containing visible characters. Empty parts, or parts only made of
+     * formatting codes, are skipped since the visible text ends before them.
+     *
+     * @return The index of the last visible part, or -1 if none
+     */
+    private int getLastVisiblePart() {
+        for (int i = measured_parts - 1; i >= 0; i--) {
+            if (part_widths[i] != 0)
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Measures the part at the given index, and stores its width.
+     *
+     * @param cursor The cursor to measure with.
+     * @param index  The index of the part to measure.
+     *
+     * @return The width of the part, including the gap following its last character
+     */
+    private int measure(@NotNull LegacyTextCursor cursor, int index) {
+        int result = cursor.reset(parts.get(index).getTextWithFormatting()).measureRemaining();
+
+        this.part_widths[index] = (result << 1) | (cursor.hasTrailingGap() ? 1 : 0);
+        return result;
+    }
+
+    /**
+     * Gets the selected part in order to modify it. A frozen part, such as a pooled one, is replaced by a modifiable copy
+     * first, so the modification only applies to this text-builder.
+     *
+     * @return The modifiable selected part
+     */
+    @NotNull
+    private ChatText getModifiablePart() {
+        ChatText result = parts.get(pointer);
+
+        if (result.isFrozen())
+            this.parts.set(pointer, result = new ChatText(result));
+
+        return result;
+    }
+
+    /**
+     * Invalidates the formatted text after the part at the given index was modified.
+     *
+     * @param index The index of the modified part.
+     */
+    private void invalidate(int index) {
+        this.cached_text = null;
+
+        if (index < text_parts) {
+            this.text.setLength(0);
+            this.text_parts = 0;
+        }
+    }
+
+    /**
+     * Invalidates the formatted text after the selected part was restyled, and measures it again.
+     */
+    private void restyled() {
+        this.invalidate(pointer);
+        this.checkVersion();
+
+        // Only the restyled part has to be measured again.
+        if (pointer < measured_parts) {
+            this.width -= part_widths[pointer] >> 1;
+            this.width += measure(new LegacyTextCursor(""), pointer);
+        }
+    }
+
+    /**
+     * Drops all the measured widths if the glyph widths changed since they were measured.
+     */
+    private void checkVersion() {
+        long version = FontWidthRegistry.getCurrentVersion();
+
+        if (version != measured_version) {
+            this.measured_version = version;
+            this.measured_parts = 0;
+            this.width = 0;
+        }
+    }
+
+    /**
+     * Checks if the given components are the ones the cached json was serialized from.
+     *
+     * @param components The current components of the parts.
+     *
+     * @return True if all the components are the same instances, otherwise false
+     */
+    private boolean isSameComponents(@NotNull TextComponent[] components) {
+        if (components.length != json_components.length)
+            return false;
+
+        for (int i = 0; i < components.length; i++) {
+            if (components[i] != json_components[i])
+                return false;
+        }
+
+        return true;
+    }
+
     /**
      * Checks if the index is a valid part-index.
      *
@@ -0,0 +1,710 @@
+package com.slyvr.chat;
+
+import com.google.common.base.Preconditions;
+import com.slyvr.chat.style.TextAlignment;
+import com.slyvr.chat.style.TextColor;
+import com.slyvr.chat.style.TextWrap;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.ClickEvent;
+import net.md_5.bungee.api.chat.HoverEvent;
+import net.md_5.bungee.api.chat.TextComponent;
+import net.md_5.bungee.chat.ComponentSerializer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes chat-texts, text-builders and text-sections into a compact binary format, and decodes them back.
+ * <p>
+ * Every encoded object starts with the format's version and the object's type. Lengths and counts are written as
+ * variable-length integers, colors as a single byte and styles as a bitmask. Strings are written as UTF-8 the first
+ * time they appear, then referenced by their index, and click and hover events are deduplicated the same way. Objects
+ * can be written to and read from a {@link DataOutput}/{@link DataInput} or a {@link ByteBuffer}, without any
+ * intermediate buffer.
+ * <p>
+ * Chat-texts holding data the compact form cannot represent, such as extras, are written as their json.
+ * <p>
+ * Decoded data is validated before being used, so a truncated or corrupted input fails with an {@link IOException}.
+ * Strings are limited to three times {@link ChatPayload#MAXIMUM_MESSAGE_LENGTH} bytes, and their length is checked
+ * against the remaining bytes of a buffer before being allocated.
+ *
+ * @since 1.0.0
+ */
+public final class ChatTextCodec {
+
+    /**
+     * The version of the binary format written by this codec.
+     */
+    public static final int VERSION = 1;
+
+    private static final int TEXT = 1;
+    private static final int BUILDER = 2;
+    private static final int SECTION = 3;
+
+    private static final int COMPLEX_FLAG = 1;
+    private static final int COALESCED_FLAG = 1;
+    private static final int NAVIGATION_FLAG = 2;
+    private static final int WORD_WRAP_FLAG = 4;
+    private static final int LABELS_FLAG = 8;
+
+    private static final int NO_COLOR = 0xFF;
+    private static final int COLOR_COUNT = TextColor.values().length;
+
+    // Longest UTF-8 encoding of the json of a chat message accepted by the client, longer strings being rejected.
+    private static final int MAXIMUM_STRING_LENGTH = ChatPayload.MAXIMUM_MESSAGE_LENGTH * 3;
+
+    // Line layouts: alignment ordinals, followed by the layout of lines aligned by a number of spaces.
+    private static final int SPACES_LAYOUT = TextAlignment.values().length;
+    private static final TextAlignment[] ALIGNMENTS = TextAlignment.values();
+
+    private ChatTextCodec() {
+    }
+
+    /**
+     * Writes the given chat-text to the given output.
+     *
+     * @param text   The chat-text to write.
+     * @param output The output to write to.
+     *
+     * @throws IOException If the output fails to be written.
+     */
+    public static void write(@NotNull ChatText text, @NotNull DataOutput output) throws IOException {
+        Preconditions.checkNotNull(text, "Cannot write a null chat-text!");
+
+        new Encoder(toSink(output), TEXT).writeText(text);
+    }
+
+    /**
+     * Writes the given chat-text to the given buffer.
+     *
+     * @param text   The chat-text to write.
+     * @param buffer The buffer to write to.
+     *
+     * @throws IOException                       Never, the buffer being written directly.
+     * @throws java.nio.BufferOverflowException If the buffer doesn't have enough space remaining.
+     */
+    public static void write(@NotNull ChatText text, @NotNull ByteBuffer buffer) throws IOException {
+        Preconditions.checkNotNull(text, "Cannot write a null chat-text!");
+
+        new Encoder(toSink(buffer), TEXT).writeText(text);
+    }
+
+    /**
+     * Writes the given text-builder to the given output.
+     *
+     * @param builder The text-builder to write.
+     * @param output  The output to write to.
+     *
+     * @throws IOException If the output fails to be written.
+     */
+    public static void write(@NotNull ChatTextBuilder builder, @NotNull DataOutput output) throws IOException {
+        Preconditions.checkNotNull(builder, "Cannot write a null text-builder!");
+
+        new Encoder(toSink(output), BUILDER).writeBuilder(builder);
+    }
+
+    /**
+     * Writes the given text-builder to the given buffer.
+     *
+     * @param builder The text-builder to write.
+     * @param buffer  The buffer to write to.
+     *
+     * @throws IOException                       Never, the buffer being written directly.
+     * @throws java.nio.BufferOverflowException If the buffer doesn't have enough space remaining.
+     */
+    public static void write(@NotNull ChatTextBuilder builder, @NotNull ByteBuffer buffer) throws IOException {
+        Preconditions.checkNotNull(builder, "Cannot write a null text-builder!");
+
+        new Encoder(toSink(buffer), BUILDER).writeBuilder(builder);
+    }
+
+    /**
+     * Writes the given text-section to the given output, including its pagination and coalescing settings.
+     *
+     * @param section The text-section to write.
+     * @param output  The output to write to.
+     *
+     * @throws IOException If the output fails to be written.
+     */
+    public static void write(@NotNull ChatTextSection section, @NotNull DataOutput output) throws IOException {
+        Preconditions.checkNotNull(section, "Cannot write a null text-section!");
+
+        new Encoder(toSink(output), SECTION).writeSection(section);
+    }
+
+    /**
+     * Writes the given text-section to the given buffer, including its pagination and coalescing settings.
+     *
+     * @param section The text-section to write.
+     * @param buffer  The buffer to write to.
+     *
+     * @throws IOException                       Never, the buffer being written directly.
+     * @throws java.nio.BufferOverflowException If the buffer doesn't have enough space remaining.
+     */
+    public static void write(@NotNull ChatTextSection section, @NotNull ByteBuffer buffer) throws IOException {
+        Preconditions.checkNotNull(section, "Cannot write a null text-section!");
+
+        new Encoder(toSink(buffer), SECTION).writeSection(section);
+    }
+
+    /**
+     * Reads a chat-text from the given input.
+     *
+     * @param input The input to read from.
+     *
+     * @return The read chat-text
+     *
+     * @throws IOException If the input fails to be read or doesn't contain a valid chat-text.
+     */
+    @NotNull
+    public static ChatText readText(@NotNull DataInput input) throws IOException {
+        return new Decoder(toSource(input), TEXT).readText();
+    }
+
+    /**
+     * Reads a chat-text from the given buffer.
+     *
+     * @param buffer The buffer to read from.
+     *
+     * @return The read chat-text
+     *
+     * @throws IOException If the buffer doesn't contain a valid chat-text.
+     */
+    @NotNull
+    public static ChatText readText(@NotNull ByteBuffer buffer) throws IOException {
+        return new Decoder(toSource(buffer), TEXT).readText();
+    }
+
+    /**
+     * Reads a text-builder from the given input.
+     *
+     * @param input The input to read from.
+     *
+     * @return The read text-builder
+     *
+     * @throws IOException If the input fails to be read or doesn't contain a valid text-builder.
+     */
+    @NotNull
+    public static ChatTextBuilder readBuilder(@NotNull DataInput input) throws IOException {
+        return new Decoder(toSource(input), BUILDER).readBuilder();
+    }
+
+    /**
+     * Reads a text-builder from the given buffer.
+     *
+     * @param buffer The buffer to read from.
+     *
+     * @return The read text-builder
+     *
+     * @throws IOException If the buffer doesn't contain a valid text-builder.
+     */
+    @NotNull
+    public static ChatTextBuilder readBuilder(@NotNull ByteBuffer buffer) throws IOException {
+        return new Decoder(toSource(buffer), BUILDER).readBuilder();
+    }
+
+    /**
+     * Reads a text-section from the given input.
+     *
+     * @param input The input to read from.
+     *
+     * @return The read text-section
+     *
+     * @throws IOException If the input fails to be read or doesn't contain a valid text-section.
+     */
+    @NotNull
+    public static ChatTextSection readSection(@NotNull DataInput input) throws IOException {
+        return new Decoder(toSource(input), SECTION).readSection();
+    }
+
+    /**
+     * Reads a text-section from the given buffer.
+     *
+     * @param buffer The buffer to read from.
+     *
+     * @return The read text-section
+     *
+     * @throws IOException If the buffer doesn't contain a valid text-section.
+     */
+    @NotNull
+    public static ChatTextSection readSection(@NotNull ByteBuffer buffer) throws IOException {
+        return new Decoder(toSource(buffer), SECTION).readSection();
+    }
+
+    @NotNull
+    private static Sink toSink(@NotNull DataOutput output) {
+        Preconditions.checkNotNull(output, "Output cannot be null!");
+
+        return new Sink() {
+            @Override
+            public void write(int value) throws IOException {
+                output.write(value);
+            }
+
+            @Override
+            public void write(@NotNull byte[] bytes) throws IOException {
+                output.write(bytes);
+            }
+        };
+    }
+
+    @NotNull
+    private static Sink toSink(@NotNull ByteBuffer buffer) {
+        Preconditions.checkNotNull(buffer, "Buffer cannot be null!");
+
+        return new Sink() {
+            @Override
+            public void write(int value) {
+                buffer.put((byte) value);
+            }
+
+            @Override
+            public void write(@NotNull byte[] bytes) {
+                buffer.put(bytes);
+            }
+        };
+    }
+
+    @NotNull
+    private static Source toSource(@NotNull DataInput input) {
+        Preconditions.checkNotNull(input, "Input cannot be null!");
+
+        return new Source() {
+            @Override
+            public int read() throws IOException {
+                return input.readUnsignedByte();
+            }
+
+            @Override
+            public void read(@NotNull byte[] bytes) throws IOException {
+                input.readFully(bytes);
+            }
+
+            @Override
+            public int remaining() {
+                return -1;
+            }
+        };
+    }
+
+    @NotNull
+    private static Source toSource(@NotNull ByteBuffer buffer) {
+        Preconditions.checkNotNull(buffer, "Buffer cannot be null!");
+
+        return new Source() {
+            @Override
+            public int read() throws IOException {
+                if (!buffer.hasRemaining())
+                    throw new IOException("Unexpected end of buffer!");
+
+                return buffer.get() & 0xFF;
+            }
+
+            @Override
+            public void read(@NotNull byte[] bytes) throws IOException {
+                if (buffer.remaining() < bytes.length)
+                    throw new IOException("Unexpected end of buffer!");
+
+                buffer.get(bytes);
+            }
+
+            @Override
+            public int remaining() {
+                return buffer.remaining();
+            }
+        };
+    }
+
+    /**
+     * Represents the output of an encoder.
+     */
+    private interface Sink {
+
+        void write(int value) throws IOException;
+
+        void write(@NotNull byte[] bytes) throws IOException;
+
+    }
+
+    /**
+     * Represents the input of a decoder.
+     */
+    private interface Source {
+
+        int read() throws IOException;
+
+        void read(@NotNull byte[] bytes) throws IOException;
+
+        /**
+         * Gets the number of bytes left to read.
+         *
+         * @return The number of bytes left to read, or -1 if unknown
+         */
+        int remaining();
+
+    }
+
+    private static final class Encoder {
+
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final Map<Object, Integer> events = new HashMap<>();
+        private final Sink sink;
+
+        private Encoder(@NotNull Sink sink, int type) throws IOException {
+            this.sink = sink;
+
+            sink.write(VERSION);
+            sink.write(type);
+        }
+
+        private void writeSection(@NotNull ChatTextSection section) throws IOException {
+            // The section's lock is held while it is written, so it cannot be modified by another thread in between.
+            synchronized (section) {
+                this.writeSectionContent(section);
+            }
+        }
+
+        private void writeSectionContent(@NotNull ChatTextSection section) throws IOException {
+            String navigation = section.getNavigationCommand();
+
+            int flags = section.isCoalesced() ? COALESCED_FLAG : 0;
+            if (navigation != null)
+                flags |= NAVIGATION_FLAG;
+            if (section.getWrap() == TextWrap.WORD)
+                flags |= WORD_WRAP_FLAG;
+
+            // Default labels are omitted, so sections which don't customize them are written as before.
+            boolean labels = !ChatTextSection.DEFAULT_PREVIOUS_LABEL.equals(section.getPreviousLabel())
+                    || !ChatTextSection.DEFAULT_PAGE_LABEL.equals(section.getPageLabel())
+                    || !ChatTextSection.DEFAULT_NEXT_LABEL.equals(section.getNextLabel());
+
+            if (labels)
+                flags |= LABELS_FLAG;
+
+            this.sink.write(flags);
+            this.writeVarInt(section.getPageSize());
+
+            if (navigation != null)
+                this.writeString(navigation);
+
+            if (labels) {
+                this.writeString(section.getPreviousLabel());
+                this.writeString(section.getPageLabel());
+                this.writeString(section.getNextLabel());
+            }
+
+            int count = section.getLineCount();
+            this.writeVarInt(count);
+
+            for (int i = 0; i < count; i++) {
+                Object source = section.getLineSource(i);
+                TextAlignment alignment = section.getLineAlignment(i);
+
+                if (alignment != null) {
+                    this.sink.write(alignment.ordinal());
+                } else {
+                    this.sink.write(SPACES_LAYOUT);
+                    this.writeVarInt(section.getLineSpaces(i));
+                }
+
+                if (source instanceof ChatText) {
+                    this.sink.write(TEXT);
+                    this.writeText((ChatText) source);
+                } else {
+                    this.sink.write(0);
+                    this.writeString((String) source);
+                }
+            }
+        }
+
+        private void writeBuilder(@NotNull ChatTextBuilder builder) throws IOException {
+            int size = builder.size();
+            this.writeVarInt(size);
+
+            for (int i = 0; i < size; i++)
+                this.writeText(builder.getText(i));
+        }
+
+        private void writeText(@NotNull ChatText text) throws IOException {
+            if (text.isComplex()) {
+                this.sink.write(COMPLEX_FLAG);
+                this.writeString(text.toJson());
+                return;
+            }
+
+            this.sink.write(0);
+            this.sink.write(text.getColorOrdinal());
+            this.writeVarInt(text.getStyleBits());
+            this.writeString(text.getText());
+            this.writeClickEvent(text.getClickEvent());
+            this.writeHoverEvent(text.getHoverEvent());
+        }
+
+        private void writeClickEvent(@Nullable ClickEvent event) throws IOException {
+            if (this.writeEventReference(event))
+                return;
+
+            this.writeString(event.getAction().name());
+            this.writeString(event.getValue());
+        }
+
+        private void writeHoverEvent(@Nullable HoverEvent event) throws IOException {
+            if (this.writeEventReference(event))
+                return;
+
+            // Hover events can hold any content, which is written using the json of an empty component carrying it.
+            TextComponent carrier = new TextComponent();
+            carrier.setHoverEvent(event);
+
+            this.writeString(ComponentSerializer.toString(carrier));
+        }
+
+        /**
+         * Writes a reference to the given event, unless it wasn't written yet.
+         *
+         * @param event The event to write.
+         *
+         * @return True if the event was null or already written, otherwise false if it must be written
+         *
+         * @throws IOException If the reference fails to be written.
+         */
+        private boolean writeEventReference(@Nullable Object event) throws IOException {
+            if (event == null) {
+                this.writeVarInt(0);
+                return true;
+            }
+
+            Integer index = events.get(event);
+            if (index != null) {
+                this.writeVarInt(index + 2);
+                return true;
+            }
+
+            this.events.put(event, events.size());
+            this.writeVarInt(1);
+            return false;
+        }
+
+        private void writeString(@NotNull String value) throws IOException {
+            Integer index = strings.get(value);
+
+            if (index != null) {
+                this.writeVarInt(index + 1);
+                return;
+            }
+
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > MAXIMUM_STRING_LENGTH)
+                throw new IOException("Strings cannot be longer than " + MAXIMUM_STRING_LENGTH + " bytes!");
+
+            this.strings.put(value, strings.size());
+            this.writeVarInt(0);
+            this.writeVarInt(bytes.length);
+            this.sink.write(bytes);
+        }
+
+        private void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                this.sink.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+
+            this.sink.write(value);
+        }
+
+    }
+
+    private static final class Decoder {
+
+        private final List<String> strings = new ArrayList<>();
+        private final List<Object> events = new ArrayList<>();
+        private final Source source;
+
+        private Decoder(@NotNull Source source, int type) throws IOException {
+            this.source = source;
+
+            int version = source.read();
+            if (version != VERSION)
+                throw new IOException("Unsupported format version " + version + '!');
+
+            int actual = source.read();
+            if (actual != type)
+                throw new IOException("Expected object type " + type + " but got " + actual + '!');
+        }
+
+        @NotNull
+        private ChatTextSection readSection() throws IOException {
+            ChatTextSection result = new ChatTextSection();
+
+            int flags = source.read();
+            result.setCoalesced((flags & COALESCED_FLAG) != 0);
+            result.setWrap((flags & WORD_WRAP_FLAG) != 0 ? TextWrap.WORD : TextWrap.CHARACTER);
+            result.setPageSize(readVarInt());
+
+            if ((flags & NAVIGATION_FLAG) != 0)
+                result.setNavigationCommand(readString());
+
+            if ((flags & LABELS_FLAG) != 0)
+                result.setNavigationLabels(readString(), readString(), readString());
+
+            int count = readVarInt();
+            for (int i = 0; i < count; i++) {
+                int layout = source.read();
+                if (layout > SPACES_LAYOUT)
+                    throw new IOException("Invalid line layout " + layout + '!');
+
+                int spaces = layout == SPACES_LAYOUT ? readVarInt() : 0;
+                boolean text = source.read() == TEXT;
+
+                if (layout == SPACES_LAYOUT) {
+                    if (text)
+                        result.append(readText(), spaces);
+                    else
+                        result.append(readString(), spaces);
+                } else {
+                    if (text)
+                        result.append(readText(), ALIGNMENTS[layout]);
+                    else
+                        result.append(readString(), ALIGNMENTS[layout]);
+                }
+            }
+
+            return result;
+        }
+
+        @NotNull
+        private ChatTextBuilder readBuilder() throws IOException {
+            ChatTextBuilder result = new ChatTextBuilder();
+
+            int size = readVarInt();
+            for (int i = 0; i < size; i++)
+                result.append(readText());
+
+            return result;
+        }
+
+        @NotNull
+        private ChatText readText() throws IOException {
+            int flags = source.read();
+
+            if ((flags & COMPLEX_FLAG) != 0) {
+                BaseComponent[] components = ComponentSerializer.parse(readString());
+
+                if (components.length != 1 || !(components[0] instanceof TextComponent))
+                    throw new IOException("Invalid chat-text json!");
+
+                return new ChatText((TextComponent) components[0]);
+            }
+
+            int color = source.read();
+            if (color != NO_COLOR && color >= COLOR_COUNT)
+                throw new IOException("Invalid color " + color + '!');
+
+            int styles = readVarInt();
+            String text = readString();
+
+            return new ChatText(text, (byte) color, styles, readClickEvent(), readHoverEvent());
+        }
+
+        @Nullable
+        private ClickEvent readClickEvent() throws IOException {
+            int reference = readVarInt();
+            if (reference != 1)
+                return getEvent(reference, ClickEvent.class);
+
+            ClickEvent.Action action;
+            try {
+                action = ClickEvent.Action.valueOf(readString());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Unknown click-event action!", e);
+            }
+
+            ClickEvent result = new ClickEvent(action, readString());
+            this.events.add(result);
+            return result;
+        }
+
+        @Nullable
+        private HoverEvent readHoverEvent() throws IOException {
+            int reference = readVarInt();
+            if (reference != 1)
+                return getEvent(reference, HoverEvent.class);
+
+            BaseComponent[] carrier = ComponentSerializer.parse(readString());
+            if (carrier.length != 1 || carrier[0].getHoverEvent() == null)
+                throw new IOException("Invalid hover-event json!");
+
+            HoverEvent result = carrier[0].getHoverEvent();
+            this.events.add(result);
+            return result;
+        }
+
+        @Nullable
+        private <T> T getEvent(int reference, @NotNull Class<T> type) throws IOException {
+            if (reference == 0)
+                return null;
+
+            int index = reference - 2;
+            if (index >= events.size() || !type.isInstance(events.get(index)))
+                throw new IOException("Invalid event reference " + reference + '!');
+
+            return type.cast(events.get(index));
+        }
+
+        @NotNull
+        private String readString() throws IOException {
+            int reference = readVarInt();
+
+            if (reference != 0) {
+                if (reference > strings.size())
+                    throw new IOException("Invalid string reference " + reference + '!');
+
+                return strings.get(reference - 1);
+            }
+
+            int length = readVarInt();
+            if (length > MAXIMUM_STRING_LENGTH)
+                throw new IOException("String length " + length + " exceeds the maximum of " + MAXIMUM_STRING_LENGTH + " bytes!");
+
+            int remaining = source.remaining();
+            if (remaining != -1 && length > remaining)
+                throw new IOException("Unexpected end of buffer!");
+
+            byte[] bytes = new byte[length];
+            this.source.read(bytes);
+
+            String result = new String(bytes, StandardCharsets.UTF_8);
+            this.strings.add(result);
+            return result;
+        }
+
+        private int readVarInt() throws IOException {
+            int result = 0;
+
+            for (int shift = 0; shift < 35; shift += 7) {
+                int current = source.read();
+                result |= (current & 0x7F) << shift;
+
+                if ((current & 0x80) == 0) {
+                    if (result < 0)
+                        throw new IOException("Negative variable-length integer!");
+
+                    return result;
+                }
+            }
+
+            throw new IOException("Variable-length integer is too long!");
+        }
+
+    }
+
+}
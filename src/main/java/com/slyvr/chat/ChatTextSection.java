@@ -1,23 +1,85 @@
 package com.slyvr.chat;
 
 import com.google.common.base.Preconditions;
+import com.slyvr.chat.metrics.ChatMetric;
+import com.slyvr.chat.metrics.ChatMetrics;
 import com.slyvr.chat.style.TextAlignment;
+import com.slyvr.chat.style.TextColor;
+import com.slyvr.chat.style.TextWrap;
 import com.slyvr.chat.utils.ChatTextUtils;
+import com.slyvr.chat.utils.FontWidthRegistry;
+import com.slyvr.chat.utils.TextLayoutCache;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.ClickEvent;
 import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 /**
  * Represents a text-section composed of a combination of multiple texts.
+ * <p>
+ * Appended lines are kept unrendered, and only laid out the first time they are sent. A section can also be split into
+ * pages of a fixed number of lines, in which case only the lines of the requested pages are ever laid out.
+ * <p>
+ * Appended lines can be modified through their {@link #getLine(int) handles}, only the modified lines being laid out
+ * again, which suits sections refreshed periodically such as scoreboards or timers.
+ * <p>
+ * Sections are thread-safe: their lines, settings, rendered pages and laid out lines are guarded by the section's lock,
+ * which is held while the section is read, modified, rendered or encoded by {@link ChatTextCodec}. A section can thus be
+ * rendered for several width profiles from different threads, such as the ones of a
+ * {@link com.slyvr.chat.render.ChatRenderPipeline}, while being updated on the main thread.
  *
  * @since 1.0.0
  */
-public final class ChatTextSection {
+public final class ChatTextSection implements ChatRenderable {
+
+    /**
+     * The placeholder replaced by the target page number in the navigation command.
+     */
+    public static final String PAGE_PLACEHOLDER = "{page}";
+
+    /**
+     * The placeholder replaced by the number of pages in the page label.
+     */
+    public static final String PAGES_PLACEHOLDER = "{pages}";
+
+    /**
+     * The default label of the button displaying the previous page.
+     */
+    public static final String DEFAULT_PREVIOUS_LABEL = "\u00AB Previous";
+
+    /**
+     * The default label displayed between the navigation buttons.
+     */
+    public static final String DEFAULT_PAGE_LABEL = "Page {page}/{pages}";
+
+    /**
+     * The default label of the button displaying the next page.
+     */
+    public static final String DEFAULT_NEXT_LABEL = "Next \u00BB";
 
     private final List<SectionLine<?>> section_parts = new ArrayList<>();
+    private boolean coalesced;
+    private TextWrap wrap = TextWrap.CHARACTER;
+
+    private int page_size;
+    private String navigation_command;
+    private String previous_label = DEFAULT_PREVIOUS_LABEL;
+    private String page_label = DEFAULT_PAGE_LABEL;
+    private String next_label = DEFAULT_NEXT_LABEL;
+
+    // Rendered pages of every width profile, a section which isn't paginated having a single page. Guarded by this.
+    private final Map<ChatWidthProfile, ChatPayload[]> pages = new HashMap<>();
+    private long pages_version;
 
     /**
      * Constructs a new text-section.
@@ -36,11 +98,14 @@ public final class ChatTextSection {
      * @throws NullPointerException If the given text or alignment type is null.
      */
     @NotNull
-    public ChatTextSection append(@NotNull ChatText text, @NotNull TextAlignment alignment) {
+    public synchronized ChatTextSection append(@NotNull ChatText text, @NotNull TextAlignment alignment) {
         Preconditions.checkNotNull(text, "Text to append cannot be null!");
         Preconditions.checkNotNull(alignment, "Alignment type cannot be null!");
 
-        this.section_parts.add(new TextLine(text, alignment));
+        int count = getPageCount();
+
+        this.section_parts.add(new TextLine(text, alignment, 0));
+        this.added(count);
         return this;
     }
 
@@ -56,11 +121,14 @@ public final class ChatTextSection {
      * @throws IllegalArgumentException If the number of spaces is negative.
      */
     @NotNull
-    public ChatTextSection append(@NotNull ChatText text, int spaces) {
+    public synchronized ChatTextSection append(@NotNull ChatText text, int spaces) {
         Preconditions.checkNotNull(text, "Text to append cannot be null!");
         Preconditions.checkArgument(spaces >= 0, "Number of spaces to append by cannot be negative!");
 
-        this.section_parts.add(new TextLine(text, spaces));
+        int count = getPageCount();
+
+        this.section_parts.add(new TextLine(text, null, spaces));
+        this.added(count);
         return this;
     }
 
@@ -89,11 +157,14 @@ public final class ChatTextSection {
      * @throws NullPointerException If the given text or alignment type is null.
      */
     @NotNull
-    public ChatTextSection append(@NotNull String text, @NotNull TextAlignment alignment) {
+    public synchronized ChatTextSection append(@NotNull String text, @NotNull TextAlignment alignment) {
         Preconditions.checkNotNull(text, "Text to append cannot be null!");
         Preconditions.checkNotNull(alignment, "TextAlignment's type cannot be null!");
 
-        this.section_parts.add(new StringLine(text, alignment));
+        int count = getPageCount();
+
+        this.section_parts.add(new StringLine(text, alignment, 0));
+        this.added(count);
         return this;
     }
 
@@ -109,11 +180,14 @@ public final class ChatTextSection {
      * @throws IllegalArgumentException If the number of spaces is negative.
      */
     @NotNull
-    public ChatTextSection append(@NotNull String text, int spaces) {
+    public synchronized ChatTextSection append(@NotNull String text, int spaces) {
         Preconditions.checkNotNull(text, "Text to append cannot be null!");
         Preconditions.checkArgument(spaces >= 0, "Number of spaces to append by cannot be negative!");
 
-        this.section_parts.add(new StringLine(text, spaces));
+        int count = getPageCount();
+
+        this.section_parts.add(new StringLine(text, null, spaces));
+        this.added(count);
         return this;
     }
 
@@ -132,159 +206,983 @@ public final class ChatTextSection {
     }
 
     /**
-     * Sends and display this section to the player.
+     * Checks if the lines of this section are joined into as few chat messages as possible when sent.
+     *
+     * @return True if the lines of this section are coalesced, otherwise false
+     */
+    public synchronized boolean isCoalesced() {
+        return coalesced;
+    }
+
+    /**
+     * Sets whether the lines of this section are joined into as few chat messages as possible when sent, instead of
+     * sending one chat message per line.
+     *
+     * @param coalesced True to coalesce the lines of this section, otherwise false.
+     *
+     * @return This text-section's instance
+     *
+     * @see ChatPayload#coalesce()
+     */
+    @NotNull
+    public synchronized ChatTextSection setCoalesced(boolean coalesced) {
+        if (this.coalesced != coalesced)
+            this.changed();
+
+        this.coalesced = coalesced;
+        return this;
+    }
+
+    /**
+     * Gets the way the lines of this section too wide for the chat are wrapped.
+     *
+     * @return The wrap mode of this section
+     */
+    @NotNull
+    public synchronized TextWrap getWrap() {
+        return wrap;
+    }
+
+    /**
+     * Sets the way the lines of this section too wide for the chat are wrapped. Lines are wrapped at any character by
+     * default.
+     *
+     * @param wrap The wrap mode to use.
+     *
+     * @return This text-section's instance
+     *
+     * @throws NullPointerException If the given wrap mode is null.
+     */
+    @NotNull
+    public synchronized ChatTextSection setWrap(@NotNull TextWrap wrap) {
+        Preconditions.checkNotNull(wrap, "Wrap mode cannot be null!");
+
+        if (this.wrap != wrap)
+            this.changed();
+
+        this.wrap = wrap;
+        return this;
+    }
+
+    /**
+     * Gets the maximum number of appended lines displayed per page.
+     *
+     * @return The number of lines per page, or 0 if this section is not paginated
+     */
+    public synchronized int getPageSize() {
+        return page_size;
+    }
+
+    /**
+     * Sets the maximum number of appended lines displayed per page. A line wrapping over multiple chat lines still
+     * counts as a single line.
+     *
+     * @param pageSize The number of lines per page, or 0 to display all the lines at once.
+     *
+     * @return This text-section's instance
+     *
+     * @throws IllegalArgumentException If the page size is negative.
+     */
+    @NotNull
+    public synchronized ChatTextSection setPageSize(int pageSize) {
+        Preconditions.checkArgument(pageSize >= 0, "Page size cannot be negative!");
+
+        if (this.page_size != pageSize)
+            this.changed();
+
+        this.page_size = pageSize;
+        return this;
+    }
+
+    /**
+     * Gets the number of pages of this section.
+     *
+     * @return The number of pages of this section, at least 1
+     */
+    public synchronized int getPageCount() {
+        if (page_size == 0 || section_parts.isEmpty())
+            return 1;
+
+        return (section_parts.size() + page_size - 1) / page_size;
+    }
+
+    /**
+     * Gets the command run by the page navigation buttons.
+     *
+     * @return The navigation command, or null if pages are displayed without navigation buttons
+     */
+    @Nullable
+    public synchronized String getNavigationCommand() {
+        return navigation_command;
+    }
+
+    /**
+     * Sets the command run by the page navigation buttons, displayed under every page when this section has more than
+     * one page. The {@value #PAGE_PLACEHOLDER} placeholder is replaced by the number of the page to display.
+     *
+     * @param command The navigation command, such as {@code "/help {page}"}, or null for no navigation buttons.
+     *
+     * @return This text-section's instance
+     *
+     * @throws IllegalArgumentException If the command doesn't contain the page placeholder.
+     */
+    @NotNull
+    public synchronized ChatTextSection setNavigationCommand(@Nullable String command) {
+        Preconditions.checkArgument(command == null || command.contains(PAGE_PLACEHOLDER), "Navigation command must contain the page placeholder!");
+
+        this.navigation_command = command;
+        this.changed();
+        return this;
+    }
+
+    /**
+     * Gets the label of the button displaying the previous page.
+     *
+     * @return The label of the previous page button
+     */
+    @NotNull
+    public synchronized String getPreviousLabel() {
+        return previous_label;
+    }
+
+    /**
+     * Gets the label displayed between the navigation buttons.
+     *
+     * @return The page label
+     */
+    @NotNull
+    public synchronized String getPageLabel() {
+        return page_label;
+    }
+
+    /**
+     * Gets the label of the button displaying the next page.
+     *
+     * @return The label of the next page button
+     */
+    @NotNull
+    public synchronized String getNextLabel() {
+        return next_label;
+    }
+
+    /**
+     * Sets the labels of the page navigation, such as translated labels for sections rendered per locale. The
+     * {@value #PAGE_PLACEHOLDER} and {@value #PAGES_PLACEHOLDER} placeholders of the page label are replaced by the
+     * number of the displayed page and the number of pages.
+     *
+     * @param previous The label of the button displaying the previous page.
+     * @param page     The label displayed between the buttons, such as {@code "Page {page}/{pages}"}.
+     * @param next     The label of the button displaying the next page.
+     *
+     * @return This text-section's instance
+     *
+     * @throws NullPointerException If any of the given labels is null.
+     */
+    @NotNull
+    public synchronized ChatTextSection setNavigationLabels(@NotNull String previous, @NotNull String page, @NotNull String next) {
+        Preconditions.checkNotNull(previous, "Previous page label cannot be null!");
+        Preconditions.checkNotNull(page, "Page label cannot be null!");
+        Preconditions.checkNotNull(next, "Next page label cannot be null!");
+
+        this.previous_label = previous;
+        this.page_label = page;
+        this.next_label = next;
+        this.changed();
+        return this;
+    }
+
+    /**
+     * Sends and display this section to the player, laid out for the player's {@link ChatWidthProfile width profile}.
      *
      * @param player The player to display this section for
+     *
+     * @see #toPayload(ChatWidthProfile)
      */
     public void sendSection(@NotNull Player player) {
-        if (player == null)
-            return;
+        this.sendSection(player, null);
+    }
 
-        for (SectionLine<?> line : section_parts)
-            line.sendText(player);
+    /**
+     * Sends and display this section to the player, laid out for the player's {@link ChatWidthProfile width profile},
+     * attributing the send metrics to the given source.
+     *
+     * @param player The player to display this section for
+     * @param source The source of the send, such as the sending plugin's name, or null if unknown.
+     *
+     * @see ChatPayload#send(Player, String)
+     */
+    public void sendSection(@NotNull Player player, @Nullable String source) {
+        if (player != null)
+            this.toPayload(ChatWidthProfile.of(player)).send(player, source);
     }
-    
+
     /**
-     * Represents a line for a text-section.
+     * Sends and display the given page of this section to the player, laid out for the player's
+     * {@link ChatWidthProfile width profile}.
      *
-     * @since 1.0
+     * @param player The player to display the page for.
+     * @param page   The number of the page, starting from 1.
+     *
+     * @throws IllegalArgumentException If the page doesn't exist.
+     */
+    public void sendPage(@NotNull Player player, int page) {
+        this.sendPage(player, page, null);
+    }
+
+    /**
+     * Sends and display the given page of this section to the player, laid out for the player's
+     * {@link ChatWidthProfile width profile}, attributing the send metrics to the given source.
+     *
+     * @param player The player to display the page for.
+     * @param page   The number of the page, starting from 1.
+     * @param source The source of the send, such as the sending plugin's name, or null if unknown.
+     *
+     * @throws IllegalArgumentException If the page doesn't exist.
+     */
+    public void sendPage(@NotNull Player player, int page, @Nullable String source) {
+        ChatPayload result = toPayload(page, ChatWidthProfile.of(player));
+
+        if (player != null)
+            result.send(player, source);
+    }
+
+    /**
+     * Renders this section into a chat-payload for the default chat width, one message per line unless coalesced.
+     *
+     * @return The rendered chat-payload
+     *
+     * @see #toPayload(ChatWidthProfile)
+     */
+    @NotNull
+    @Override
+    public ChatPayload toPayload() {
+        return toPayload(ChatWidthProfile.DEFAULT);
+    }
+
+    /**
+     * Renders this section into a chat-payload for the given width profile, one message per line unless coalesced. The
+     * payload is reused until this section is modified.
+     * <p>
+     * If this section is paginated, only its first page is rendered.
+     *
+     * @param profile The width profile to lay out the lines for.
+     *
+     * @return The rendered chat-payload
+     *
+     * @throws NullPointerException If the given profile is null.
+     */
+    @NotNull
+    public ChatPayload toPayload(@NotNull ChatWidthProfile profile) {
+        return toPayload(1, profile);
+    }
+
+    /**
+     * Renders the given page of this section into a chat-payload for the default chat width.
+     *
+     * @param page The number of the page, starting from 1.
+     *
+     * @return The rendered chat-payload
+     *
+     * @throws IllegalArgumentException If the page doesn't exist.
+     * @see #toPayload(int, ChatWidthProfile)
+     */
+    @NotNull
+    public ChatPayload toPayload(int page) {
+        return toPayload(page, ChatWidthProfile.DEFAULT);
+    }
+
+    /**
+     * Renders the given page of this section into a chat-payload for the given width profile, followed by the
+     * navigation buttons if any. Only the lines of the page are laid out, and the payload is reused until this section
+     * is modified.
+     *
+     * @param page    The number of the page, starting from 1.
+     * @param profile The width profile to lay out the lines for.
+     *
+     * @return The rendered chat-payload
+     *
+     * @throws IllegalArgumentException If the page doesn't exist.
+     * @throws NullPointerException     If the given profile is null.
+     */
+    @NotNull
+    public synchronized ChatPayload toPayload(int page, @NotNull ChatWidthProfile profile) {
+        Preconditions.checkNotNull(profile, "Width profile cannot be null!");
+
+        int count = getPageCount();
+        Preconditions.checkArgument(page >= 1 && page <= count, "Page must be between 1 and " + count + '!');
+
+        // Payloads rendered with outdated glyph widths are dropped.
+        long version = FontWidthRegistry.getCurrentVersion();
+        if (version != pages_version) {
+            this.pages.clear();
+            this.pages_version = version;
+        }
+
+        ChatPayload[] rendered = pages.computeIfAbsent(profile, key -> new ChatPayload[count]);
+
+        ChatPayload result = rendered[page - 1];
+        if (result != null)
+            return result;
+
+        if (page_size == 0)
+            return rendered[0] = render(0, section_parts.size(), null, profile.getWidth());
+
+        int start = (page - 1) * page_size;
+        int end = Math.min(start + page_size, section_parts.size());
+
+        BaseComponent[] navigation = navigation_command != null && count > 1 ? renderNavigation(page, count, profile.getWidth()) : null;
+        return rendered[page - 1] = render(start, end, navigation, profile.getWidth());
+    }
+
+    /**
+     * Sends this section to all the given players, rendering it once per {@link ChatWidthProfile width profile}.
+     *
+     * @param players The players to display this section for.
+     *
+     * @return The report of the broadcast, counting the largest number of messages sent to a player
+     *
+     * @throws NullPointerException If the given players collection is null.
+     */
+    @NotNull
+    @Override
+    public BroadcastReport broadcast(@NotNull Collection<? extends Player> players) {
+        return broadcast(players, (String) null);
+    }
+
+    /**
+     * Sends this section to all the given players, rendering it once per {@link ChatWidthProfile width profile}, and
+     * attributing the send metrics to the given source.
+     *
+     * @param players The players to display this section for.
+     * @param source  The source of the broadcast, such as the sending plugin's name, or null if unknown.
+     *
+     * @return The report of the broadcast, counting the largest number of messages sent to a player
+     *
+     * @throws NullPointerException If the given players collection is null.
      */
-    private interface SectionLine<T> {
+    @NotNull
+    @Override
+    public BroadcastReport broadcast(@NotNull Collection<? extends Player> players, @Nullable String source) {
+        Preconditions.checkNotNull(players, "Players collection cannot be null!");
+
+        return broadcast(players, player -> true, source);
+    }
+
+    /**
+     * Sends this section to all the online players matching the given filter, rendering it once per
+     * {@link ChatWidthProfile width profile}.
+     *
+     * @param filter The filter the players must match.
+     *
+     * @return The report of the broadcast, counting the largest number of messages sent to a player
+     *
+     * @throws NullPointerException If the given filter is null.
+     */
+    @NotNull
+    @Override
+    public BroadcastReport broadcast(@NotNull Predicate<? super Player> filter) {
+        return broadcast(filter, null);
+    }
+
+    /**
+     * Sends this section to all the online players matching the given filter, rendering it once per
+     * {@link ChatWidthProfile width profile}, and attributing the send metrics to the given source.
+     *
+     * @param filter The filter the players must match.
+     * @param source The source of the broadcast, such as the sending plugin's name, or null if unknown.
+     *
+     * @return The report of the broadcast, counting the largest number of messages sent to a player
+     *
+     * @throws NullPointerException If the given filter is null.
+     */
+    @NotNull
+    @Override
+    public BroadcastReport broadcast(@NotNull Predicate<? super Player> filter, @Nullable String source) {
+        Preconditions.checkNotNull(filter, "Players filter cannot be null!");
+
+        return broadcast(Bukkit.getOnlinePlayers(), filter, source);
+    }
+
+    @NotNull
+    private BroadcastReport broadcast(@NotNull Collection<? extends Player> players, @NotNull Predicate<? super Player> filter, @Nullable String source) {
+        long start = System.nanoTime();
+        int recipients = 0;
+        int messages = 0;
+
+        for (Player player : players) {
+            if (player == null || !filter.test(player))
+                continue;
+
+            ChatPayload result = toPayload(ChatWidthProfile.of(player));
+            result.send(player, source);
+
+            messages = Math.max(messages, result.size());
+            recipients++;
+        }
+
+        return new BroadcastReport(recipients, messages, System.nanoTime() - start);
+    }
+
+    /**
+     * Gets the number of lines appended to this section.
+     *
+     * @return The number of appended lines
+     */
+    public synchronized int getLineCount() {
+        return section_parts.size();
+    }
+
+    /**
+     * Gets a handle to the line at the given index, which can be used to modify the line.
+     *
+     * @param index The index of the line.
+     *
+     * @return The handle to the line
+     *
+     * @throws IndexOutOfBoundsException If the given index is invalid.
+     */
+    @NotNull
+    public synchronized Line getLine(int index) {
+        if (index < 0 || index >= section_parts.size())
+            throw new IndexOutOfBoundsException("The index must be between 0 and " + (section_parts.size() - 1) + '!');
+
+        return new Line(index);
+    }
+
+    /**
+     * Gets the unrendered source of the line at the given index.
+     *
+     * @param index The index of the line.
+     *
+     * @return The string or chat-text of the line
+     */
+    @NotNull
+    synchronized Object getLineSource(int index) {
+        return section_parts.get(index).source;
+    }
+
+    /**
+     * Gets the alignment of the line at the given index.
+     *
+     * @param index The index of the line.
+     *
+     * @return The alignment of the line, or null if aligned by a number of spaces
+     */
+    @Nullable
+    synchronized TextAlignment getLineAlignment(int index) {
+        return section_parts.get(index).alignment;
+    }
+
+    /**
+     * Gets the number of spaces the line at the given index is aligned by.
+     *
+     * @param index The index of the line.
+     *
+     * @return The number of spaces the line is aligned by
+     */
+    synchronized int getLineSpaces(int index) {
+        return section_parts.get(index).spaces;
+    }
+
+    /**
+     * Renders the lines between the given indexes into a chat-payload.
+     *
+     * @param start     The index of the first line to render.
+     * @param end       The index following the last line to render.
+     * @param footer    The message to add after the lines or null for none.
+     * @param chatWidth The width of the chat.
+     *
+     * @return The rendered chat-payload
+     */
+    @NotNull
+    private ChatPayload render(int start, int end, @Nullable BaseComponent[] footer, int chatWidth) {
+        long time = ChatMetrics.start();
+
+        LineLayout[] layouts = new LineLayout[end - start];
+        int count = footer != null ? 1 : 0;
+
+        for (int i = start; i < end; i++) {
+            layouts[i - start] = section_parts.get(i).layout(chatWidth, wrap);
+            count += layouts[i - start].messages.length;
+        }
+
+        BaseComponent[][] messages = new BaseComponent[count][];
+        int[] lengths = coalesced ? new int[count] : null;
+        int index = 0;
+
+        // Unmodified lines reuse their laid out messages, and their serialized lengths when coalesced.
+        for (LineLayout layout : layouts) {
+            System.arraycopy(layout.messages, 0, messages, index, layout.messages.length);
+
+            if (lengths != null)
+                System.arraycopy(layout.getLengths(), 0, lengths, index, layout.messages.length);
+
+            index += layout.messages.length;
+        }
+
+        if (footer != null) {
+            messages[index] = footer;
+
+            if (lengths != null)
+                lengths[index] = ChatPayload.measure(footer);
+        }
+
+        ChatPayload result = new ChatPayload(messages);
+        if (lengths != null)
+            result = result.coalesce(ChatPayload.MAXIMUM_MESSAGE_LENGTH, lengths);
+
+        ChatMetrics.stop(ChatMetric.SECTION_RENDER, time);
+        return result;
+    }
+
+    /**
+     * Renders the centered navigation buttons of the given page.
+     *
+     * @param page      The number of the displayed page.
+     * @param count     The number of pages.
+     * @param chatWidth The width of the chat.
+     *
+     * @return The rendered navigation buttons
+     */
+    @NotNull
+    private BaseComponent[] renderNavigation(int page, int count, int chatWidth) {
+        TextComponent previous = createButton(previous_label, page - 1, page > 1);
+        TextComponent info = new TextComponent("  " + page_label.replace(PAGE_PLACEHOLDER, String.valueOf(page)).replace(PAGES_PLACEHOLDER, String.valueOf(count)) + "  ");
+        TextComponent next = createButton(next_label, page + 1, page < count);
+
+        info.setColor(TextColor.GRAY.toBungeeChatColor());
+
+        int width = ChatTextUtils.getTextWidth(previous.getText() + info.getText() + next.getText());
+        TextComponent spaces = new TextComponent(ChatTextUtils.getEmptyLine(ChatTextUtils.getSpacesToCenter(width, chatWidth)));
+
+        return new BaseComponent[]{spaces, previous, info, next};
+    }
+
+    /**
+     * Creates a navigation button displaying the given page when clicked.
+     *
+     * @param text    The text of the button.
+     * @param page    The number of the page to display.
+     * @param enabled Whether the button can be clicked.
+     *
+     * @return The created button
+     */
+    @NotNull
+    private TextComponent createButton(@NotNull String text, int page, boolean enabled) {
+        TextComponent result = new TextComponent(text);
+
+        if (!enabled) {
+            result.setColor(TextColor.DARK_GRAY.toBungeeChatColor());
+            return result;
+        }
+
+        result.setColor(TextColor.GOLD.toBungeeChatColor());
+        result.setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, navigation_command.replace(PAGE_PLACEHOLDER, String.valueOf(page))));
+        return result;
+    }
+
+    /**
+     * Drops the rendered payloads after this section was modified.
+     */
+    private void changed() {
+        this.pages.clear();
+    }
+
+    /**
+     * Drops the rendered payloads of the last page after a line was appended, or all of them if the number of pages
+     * changed, since every page displays the number of pages.
+     *
+     * @param previousCount The number of pages before the line was appended.
+     */
+    private void added(int previousCount) {
+        int count = getPageCount();
+
+        if (count != previousCount)
+            this.changed();
+        else
+            this.invalidatePage(count - 1);
+    }
+
+    /**
+     * Replaces the line at the given index, and drops the rendered payloads of the page holding it.
+     *
+     * @param index The index of the line to replace.
+     * @param line  The line to replace with.
+     */
+    private void replace(int index, @NotNull SectionLine<?> line) {
+        this.section_parts.set(index, line);
+        this.invalidatePage(page_size == 0 ? 0 : index / page_size);
+    }
+
+    /**
+     * Drops the rendered payloads of the given page for every width profile.
+     *
+     * @param page The index of the page, starting from 0.
+     */
+    private void invalidatePage(int page) {
+        for (ChatPayload[] rendered : pages.values())
+            rendered[page] = null;
+    }
+
+    /**
+     * Represents a handle to a line of a text-section, which can be modified after being appended.
+     * <p>
+     * Modifying a line only invalidates the page holding it, and the other lines keep their laid out and serialized
+     * messages, so refreshing a few lines of a large section only lays out the modified lines again. Setting a line to
+     * the text it already displays doesn't invalidate anything.
+     *
+     * @since 1.0.0
+     */
+    public final class Line {
+
+        private final int index;
+
+        private Line(int index) {
+            this.index = index;
+        }
 
         /**
-         * Aligns the text according to the given alignment type.
+         * Gets the index of this line in its section.
          *
-         * @param obj       The obj to align.
-         * @param alignment The type of alignment.
-         **/
-        void align(@NotNull T obj, @NotNull TextAlignment alignment);
+         * @return The index of this line
+         */
+        public int getIndex() {
+            return index;
+        }
 
         /**
-         * Aligns the text by the specified number of spaces.
+         * Gets the text of this line with all its formatting codes.
          *
-         * @param obj    The object to align.
-         * @param spaces The number of spaces to align by.
+         * @return The text of this line
          */
-        void align(@NotNull T obj, int spaces);
+        @NotNull
+        public String getText() {
+            Object source;
+
+            synchronized (ChatTextSection.this) {
+                source = section_parts.get(index).source;
+            }
+
+            return source instanceof ChatText ? ((ChatText) source).getTextWithFormatting() : (String) source;
+        }
 
         /**
-         * Sends and displays this line to the given player.
+         * Gets the alignment of this line.
          *
-         * @param player The player to display this line for.
+         * @return The alignment of this line, or null if aligned by a number of spaces
          */
-        void sendText(@NotNull Player player);
+        @Nullable
+        public TextAlignment getAlignment() {
+            synchronized (ChatTextSection.this) {
+                return section_parts.get(index).alignment;
+            }
+        }
 
-    }
+        /**
+         * Gets the number of spaces this line is aligned by.
+         *
+         * @return The number of spaces this line is aligned by, or 0 if aligned by an alignment type
+         */
+        public int getSpaces() {
+            synchronized (ChatTextSection.this) {
+                return section_parts.get(index).spaces;
+            }
+        }
 
-    private static final class StringLine implements SectionLine<String> {
+        /**
+         * Sets the text of this line, keeping its alignment.
+         *
+         * @param text The text to display.
+         *
+         * @return This line's instance
+         *
+         * @throws NullPointerException If the given text is null.
+         */
+        @NotNull
+        public Line setText(@NotNull String text) {
+            Preconditions.checkNotNull(text, "Text of the line cannot be null!");
 
-        private String[] aligned;
+            synchronized (ChatTextSection.this) {
+                SectionLine<?> line = section_parts.get(index);
+                if (!text.equals(line.source))
+                    replace(index, new StringLine(text, line.alignment, line.spaces));
+            }
 
-        public StringLine(@NotNull String text, @NotNull TextAlignment alignment) {
-            this.align(text, alignment);
+            return this;
         }
 
-        public StringLine(@NotNull String text, int spaces) {
-            this.align(text, spaces);
+        /**
+         * Sets the text of this line, keeping its alignment. The given chat-text is copied unless frozen.
+         *
+         * @param text The text to display.
+         *
+         * @return This line's instance
+         *
+         * @throws NullPointerException If the given text is null.
+         */
+        @NotNull
+        public Line setText(@NotNull ChatText text) {
+            Preconditions.checkNotNull(text, "Text of the line cannot be null!");
+
+            synchronized (ChatTextSection.this) {
+                SectionLine<?> line = section_parts.get(index);
+                if (!text.equals(line.source))
+                    replace(index, new TextLine(text, line.alignment, line.spaces));
+            }
+
+            return this;
         }
 
-        @Override
-        public void align(@NotNull String text, @NotNull TextAlignment alignment) {
-            switch (alignment) {
-                case LEFT:
-                    this.aligned = new String[]{text};
-                    break;
-                case CENTER:
-                    this.aligned = ChatTextUtils.align(text, 6).toArray(new String[0]);
-                    break;
-                case RIGHT:
-                    this.aligned = ChatTextUtils.align(text, 3).toArray(new String[0]);
-                    break;
+        /**
+         * Aligns this line according to the given alignment type.
+         *
+         * @param alignment The alignment to apply.
+         *
+         * @return This line's instance
+         *
+         * @throws NullPointerException If the given alignment type is null.
+         */
+        @NotNull
+        public Line setAlignment(@NotNull TextAlignment alignment) {
+            Preconditions.checkNotNull(alignment, "Alignment type cannot be null!");
+
+            synchronized (ChatTextSection.this) {
+                SectionLine<?> line = section_parts.get(index);
+                if (line.alignment != alignment)
+                    replace(index, line.realign(alignment, 0));
             }
 
+            return this;
         }
 
-        @Override
-        public void align(@NotNull String text, int spaces) {
-            if (spaces <= 0) {
-                this.align(text, TextAlignment.LEFT);
-                return;
+        /**
+         * Aligns this line by the given number of spaces.
+         *
+         * @param spaces The number of spaces to align by.
+         *
+         * @return This line's instance
+         *
+         * @throws IllegalArgumentException If the number of spaces is negative.
+         */
+        @NotNull
+        public Line setSpaces(int spaces) {
+            Preconditions.checkArgument(spaces >= 0, "Number of spaces to align by cannot be negative!");
+
+            synchronized (ChatTextSection.this) {
+                SectionLine<?> line = section_parts.get(index);
+                if (line.alignment != null || line.spaces != spaces)
+                    replace(index, line.realign(null, spaces));
             }
 
-            this.aligned = ChatTextUtils.split(text, spaces).toArray(new String[0]);
+            return this;
         }
 
         @Override
-        public void sendText(@NotNull Player player) {
-            player.sendMessage(aligned);
+        public String toString() {
+            return "Line{" +
+                    "index=" + index +
+                    ", text='" + getText() + '\'' +
+                    '}';
         }
 
     }
 
-    private static final class TextLine implements SectionLine<ChatText> {
+    /**
+     * Represents the messages of a line laid out for a chat width.
+     */
+    private static final class LineLayout {
 
-        private TextComponent[] aligned;
+        private final BaseComponent[][] messages;
+        private final TextWrap wrap;
+        private final long version;
+        private int[] lengths;
 
-        public TextLine(@NotNull ChatText text, @NotNull TextAlignment alignment) {
-            this.align(text, alignment);
+        private LineLayout(@NotNull BaseComponent[][] messages, @NotNull TextWrap wrap, long version) {
+            this.messages = messages;
+            this.wrap = wrap;
+            this.version = version;
         }
 
-        public TextLine(@NotNull ChatText text, int spaces) {
-            this.align(text, spaces);
+        /**
+         * Gets the serialized lengths of the messages of this layout, serializing them the first time only.
+         *
+         * @return The serialized length of every message
+         */
+        @NotNull
+        private int[] getLengths() {
+            if (lengths != null)
+                return lengths;
+
+            int[] result = new int[messages.length];
+            for (int i = 0; i < result.length; i++)
+                result[i] = ChatPayload.measure(messages[i]);
+
+            return this.lengths = result;
         }
 
-        @Override
-        public void align(@NotNull ChatText text, @NotNull TextAlignment alignment) {
-            switch (alignment) {
-                case LEFT:
-                    this.aligned = new TextComponent[]{text.toTextComponent()};
-                    break;
-                case CENTER:
-                    this.aligned = align(text.toTextComponent(), 6);
-                    break;
-                case RIGHT:
-                    this.aligned = align(text.toTextComponent(), 3);
-                    break;
-            }
+    }
 
+    /**
+     * Represents a line for a text-section.
+     * <p>
+     * A line is never modified once appended, it is replaced by a new line instead. Lines keep their layout for every
+     * chat width they were rendered for, until the glyph widths or the wrap mode change. Layouts are only accessed
+     * while holding the lock of the section owning the line.
+     *
+     * @since 1.0
+     */
+    private abstract static class SectionLine<T> {
+
+        protected final T source;
+        protected final TextAlignment alignment;
+        protected final int spaces;
+
+        private final Map<Integer, LineLayout> layouts = new HashMap<>(4);
+
+        protected SectionLine(@NotNull T source, @Nullable TextAlignment alignment, int spaces) {
+            this.source = source;
+            this.alignment = alignment;
+            this.spaces = alignment != null ? 0 : spaces;
         }
 
-        @Override
-        public void align(@NotNull ChatText text, int spaces) {
-            if (spaces <= 0) {
-                this.align(text, TextAlignment.LEFT);
-                return;
+        /**
+         * Gets the layout of this line for the given chat width, laying it out if needed.
+         *
+         * @param chatWidth The width of the chat.
+         * @param wrap      The way lines are broken.
+         *
+         * @return The layout of this line
+         */
+        @NotNull
+        public LineLayout layout(int chatWidth, @NotNull TextWrap wrap) {
+            long version = FontWidthRegistry.getCurrentVersion();
+            LineLayout result = layouts.get(chatWidth);
+
+            if (result == null || result.wrap != wrap || result.version != version) {
+                BaseComponent[][] messages = alignment != null || spaces <= 0 ? align(alignment != null ? alignment : TextAlignment.LEFT, chatWidth, wrap) : align(spaces, chatWidth, wrap);
+
+                result = new LineLayout(messages, wrap, version);
+                this.layouts.put(chatWidth, result);
             }
 
-            this.aligned = copy(ChatTextUtils.split(text.getTextWithFormatting(), spaces), text.toTextComponent());
+            return result;
         }
 
+        /**
+         * Creates a copy of this line with the same source and the given alignment.
+         *
+         * @param alignment The alignment of the copy, or null to align by a number of spaces.
+         * @param spaces    The number of spaces to align the copy by.
+         *
+         * @return The realigned copy
+         */
+        @NotNull
+        public abstract SectionLine<T> realign(@Nullable TextAlignment alignment, int spaces);
+
+        /**
+         * Lays out the source according to the given alignment type.
+         *
+         * @param alignment The type of alignment.
+         * @param chatWidth The width of the chat.
+         * @param wrap      The way lines are broken.
+         *
+         * @return The laid out messages
+         */
+        @NotNull
+        protected abstract BaseComponent[][] align(@NotNull TextAlignment alignment, int chatWidth, @NotNull TextWrap wrap);
+
+        /**
+         * Lays out the source by the specified number of spaces.
+         *
+         * @param spaces    The number of spaces to align by.
+         * @param chatWidth The width of the chat.
+         * @param wrap      The way lines are broken.
+         *
+         * @return The laid out messages
+         */
+        @NotNull
+        protected abstract BaseComponent[][] align(int spaces, int chatWidth, @NotNull TextWrap wrap);
+
+    }
+
+    private static final class StringLine extends SectionLine<String> {
+
+        public StringLine(@NotNull String text, @Nullable TextAlignment alignment, int spaces) {
+            super(text, alignment, spaces);
+        }
+
+        @NotNull
         @Override
-        public void sendText(@NotNull Player player) {
-            for (TextComponent comp : aligned)
-                player.spigot().sendMessage(comp);
+        public SectionLine<String> realign(@Nullable TextAlignment alignment, int spaces) {
+            return new StringLine(source, alignment, spaces);
         }
 
         @NotNull
-        private TextComponent[] align(@NotNull TextComponent comp, int factor) {
-            return copy(ChatTextUtils.align(comp.toLegacyText(), factor), comp);
+        @Override
+        protected BaseComponent[][] align(@NotNull TextAlignment alignment, int chatWidth, @NotNull TextWrap wrap) {
+            return convert(TextLayoutCache.getShared().align(source, alignment, chatWidth, wrap));
         }
 
         @NotNull
-        private TextComponent[] copy(@NotNull List<String> lines, @NotNull TextComponent def) {
-            TextComponent[] result = new TextComponent[lines.size()];
+        @Override
+        protected BaseComponent[][] align(int spaces, int chatWidth, @NotNull TextWrap wrap) {
+            return convert(TextLayoutCache.getShared().split(source, spaces, chatWidth, wrap));
+        }
 
-            for (int i = 0; i < lines.size(); i++) {
-                TextComponent comp = new TextComponent(def);
-                comp.setText(lines.get(i));
+        @NotNull
+        private static BaseComponent[][] convert(@NotNull String[] lines) {
+            BaseComponent[][] result = new BaseComponent[lines.length][];
 
-                result[i] = comp;
-            }
+            for (int i = 0; i < lines.length; i++)
+                result[i] = TextComponent.fromLegacyText(lines[i]);
 
             return result;
         }
 
+    }
+
+    private static final class TextLine extends SectionLine<ChatText> {
+
+        public TextLine(@NotNull ChatText text, @Nullable TextAlignment alignment, int spaces) {
+            // Copying doesn't build the text's component, and keeps this line unaffected by later changes.
+            super(text.isFrozen() ? text : new ChatText(text), alignment, spaces);
+        }
+
+        @NotNull
+        @Override
+        public SectionLine<ChatText> realign(@Nullable TextAlignment alignment, int spaces) {
+            return new TextLine(source, alignment, spaces);
+        }
+
+        @NotNull
+        @Override
+        protected BaseComponent[][] align(@NotNull TextAlignment alignment, int chatWidth, @NotNull TextWrap wrap) {
+            // Freezing shares the text's component without copying.
+            TextComponent comp = source.freeze().getComponent();
+
+            if (alignment == TextAlignment.LEFT)
+                return new BaseComponent[][]{{comp}};
+
+            return copy(TextLayoutCache.getShared().align(comp.toLegacyText(), alignment, chatWidth, wrap), comp);
+        }
+
+        @NotNull
+        @Override
+        protected BaseComponent[][] align(int spaces, int chatWidth, @NotNull TextWrap wrap) {
+            return copy(TextLayoutCache.getShared().split(source.getTextWithFormatting(), spaces, chatWidth, wrap), source.freeze().getComponent());
+        }
+
+        @NotNull
+        private static BaseComponent[][] copy(@NotNull String[] lines, @NotNull TextComponent def) {
+            BaseComponent[][] result = new BaseComponent[lines.length][];
+
+            // Only the formatting and events are copied, the events themselves are shared between all the lines.
+            for (int i = 0; i < lines.length; i++)
+                result[i] = new BaseComponent[]{ChatTextUtils.copyFormatting(def, new TextComponent(lines[i]))};
+
+            return result;
+        }
 
     }
 
-}
\ No newline at end of file
+}
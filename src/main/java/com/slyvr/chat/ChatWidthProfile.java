@@ -0,0 +1,137 @@
+package com.slyvr.chat;
+
+import com.google.common.base.Preconditions;
+import com.slyvr.chat.utils.ChatTextUtils;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Represents the width of the chat texts are laid out for.
+ * <p>
+ * Widths are rounded down to a multiple of {@link #BUCKET_SIZE}, so players with close chat settings share the same
+ * profile, and therefore the same cached layouts. Since the server cannot know the chat settings of its players, the
+ * profile of every player is given by a {@link #setResolver(Function) resolver}, which returns the default profile
+ * unless set.
+ *
+ * @since 1.0.0
+ */
+public final class ChatWidthProfile {
+
+    /**
+     * The smallest chat width selectable by the players.
+     */
+    public static final int MINIMUM_WIDTH = 40;
+
+    /**
+     * The size of the width buckets profiles are rounded to.
+     */
+    public static final int BUCKET_SIZE = 10;
+
+    /**
+     * The profile of the default chat settings.
+     */
+    public static final ChatWidthProfile DEFAULT = new ChatWidthProfile(ChatTextUtils.DEFAULT_CHAT_WIDTH);
+
+    private static final Map<Integer, ChatWidthProfile> PROFILES = new ConcurrentHashMap<>();
+    private static final Function<Player, ChatWidthProfile> DEFAULT_RESOLVER = player -> DEFAULT;
+
+    private static volatile Function<? super Player, ChatWidthProfile> resolver = DEFAULT_RESOLVER;
+
+    static {
+        PROFILES.put(DEFAULT.width, DEFAULT);
+    }
+
+    private final int width;
+
+    private ChatWidthProfile(int width) {
+        this.width = width;
+    }
+
+    /**
+     * Gets the profile of a chat of the given width.
+     *
+     * @param width The width of the chat in pixels.
+     *
+     * @return The profile of the width's bucket
+     */
+    @NotNull
+    public static ChatWidthProfile of(int width) {
+        int bucket = Math.max(MINIMUM_WIDTH, width - width % BUCKET_SIZE);
+        return PROFILES.computeIfAbsent(bucket, ChatWidthProfile::new);
+    }
+
+    /**
+     * Gets the profile of a chat of the given width, displayed with the given scale. A smaller scale fits more text in
+     * the same width.
+     *
+     * @param width The width of the chat in pixels, as selected in the chat settings.
+     * @param scale The scale of the chat, as selected in the chat settings.
+     *
+     * @return The profile of the scaled width's bucket
+     *
+     * @throws IllegalArgumentException If the scale is not positive.
+     */
+    @NotNull
+    public static ChatWidthProfile of(int width, double scale) {
+        Preconditions.checkArgument(scale > 0, "Chat scale must be positive!");
+
+        return of((int) (width / scale));
+    }
+
+    /**
+     * Gets the profile of the given player, as given by the resolver.
+     *
+     * @param player The player to get its profile.
+     *
+     * @return The profile of the player, or the default profile if unknown
+     */
+    @NotNull
+    public static ChatWidthProfile of(@Nullable Player player) {
+        if (player == null)
+            return DEFAULT;
+
+        ChatWidthProfile result = resolver.apply(player);
+        return result != null ? result : DEFAULT;
+    }
+
+    /**
+     * Sets the resolver giving the profile of every player.
+     *
+     * @param resolver The resolver to use, or null to use the default profile for everyone.
+     */
+    public static void setResolver(@Nullable Function<? super Player, ChatWidthProfile> resolver) {
+        ChatWidthProfile.resolver = resolver != null ? resolver : DEFAULT_RESOLVER;
+    }
+
+    /**
+     * Gets the width of the chat of this profile.
+     *
+     * @return The width of the chat in pixels
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj || (obj instanceof ChatWidthProfile && width == ((ChatWidthProfile) obj).width);
+    }
+
+    @Override
+    public int hashCode() {
+        return width;
+    }
+
+    @Override
+    public String toString() {
+        return "ChatWidthProfile{" +
+                "width=" + width +
+                '}';
+    }
+
+}
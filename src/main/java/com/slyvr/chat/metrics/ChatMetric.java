@@ -0,0 +1,89 @@
+package com.slyvr.chat.metrics;
+
+/**
+ * Represents the different metrics recorded by the library.
+ * <p>
+ * Every metric is recorded as a series of values: timing metrics record durations in nanoseconds, while the others
+ * record amounts, such as the number of messages of every send.
+ *
+ * @since 1.0.0
+ */
+public enum ChatMetric {
+
+    /**
+     * The duration of every text width measurement.
+     */
+    TEXT_WIDTH(true),
+
+    /**
+     * The duration of every text split into lines.
+     */
+    SPLIT(true),
+
+    /**
+     * The duration of every text alignment.
+     */
+    ALIGN(true),
+
+    /**
+     * The duration of every text-section render.
+     */
+    SECTION_RENDER(true),
+
+    /**
+     * The duration of every send to a single player.
+     */
+    SEND(true),
+
+    /**
+     * The number of chat messages of every send to a single player.
+     */
+    MESSAGES_SENT(false),
+
+    /**
+     * The number of components of every send to a single player.
+     */
+    COMPONENTS_SENT(false),
+
+    /**
+     * The length in characters of every chat message serialized to json by the library, such as when coalescing
+     * messages. Messages are serialized again by the server when sent, which isn't recorded.
+     */
+    SERIALIZED_LENGTH(false),
+
+    /**
+     * Recorded once for every layout found in a layout cache.
+     */
+    LAYOUT_CACHE_HITS(false),
+
+    /**
+     * Recorded once for every layout missing from a layout cache.
+     */
+    LAYOUT_CACHE_MISSES(false),
+
+    /**
+     * Recorded once for every chat-text found in a chat-text pool.
+     */
+    POOL_HITS(false),
+
+    /**
+     * Recorded once for every chat-text missing from a chat-text pool.
+     */
+    POOL_MISSES(false);
+
+    private final boolean timing;
+
+    ChatMetric(boolean timing) {
+        this.timing = timing;
+    }
+
+    /**
+     * Checks if this metric records durations in nanoseconds.
+     *
+     * @return True if this metric records durations, otherwise false
+     */
+    public boolean isTiming() {
+        return timing;
+    }
+
+}
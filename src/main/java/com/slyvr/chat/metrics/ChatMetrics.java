@@ -0,0 +1,106 @@
+package com.slyvr.chat.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Holds the metrics sink used by the library.
+ * <p>
+ * While no sink is set, recording a metric only costs a field read, and durations are not even measured.
+ *
+ * @since 1.0.0
+ */
+public final class ChatMetrics {
+
+    private static volatile ChatMetricsSink sink = ChatMetricsSink.NOOP;
+
+    private ChatMetrics() {
+    }
+
+    /**
+     * Gets the metrics sink used by the library.
+     *
+     * @return The metrics sink used by the library
+     */
+    @NotNull
+    public static ChatMetricsSink getSink() {
+        return sink;
+    }
+
+    /**
+     * Sets the metrics sink used by the library.
+     *
+     * @param sink The metrics sink to use or null to stop recording metrics.
+     */
+    public static void setSink(@Nullable ChatMetricsSink sink) {
+        ChatMetrics.sink = sink != null ? sink : ChatMetricsSink.NOOP;
+    }
+
+    /**
+     * Checks if metrics are being recorded.
+     *
+     * @return True if a metrics sink is set, otherwise false
+     */
+    public static boolean isEnabled() {
+        return sink != ChatMetricsSink.NOOP;
+    }
+
+    /**
+     * Starts measuring a duration.
+     *
+     * @return The start of the duration to pass to {@link #stop(ChatMetric, long)}, or 0 if metrics are not recorded
+     */
+    public static long start() {
+        return sink != ChatMetricsSink.NOOP ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Records the duration elapsed since the given start.
+     *
+     * @param metric The timing metric to record.
+     * @param start  The start returned by {@link #start()}.
+     */
+    public static void stop(@NotNull ChatMetric metric, long start) {
+        stop(metric, null, start);
+    }
+
+    /**
+     * Records the duration elapsed since the given start, attributed to the given source.
+     *
+     * @param metric The timing metric to record.
+     * @param source The source of the duration, such as a plugin name, or null if unknown.
+     * @param start  The start returned by {@link #start()}.
+     */
+    public static void stop(@NotNull ChatMetric metric, @Nullable String source, long start) {
+        ChatMetricsSink current = sink;
+
+        // The sink may have been set after the duration started.
+        if (current != ChatMetricsSink.NOOP && start != 0L)
+            current.record(metric, source, System.nanoTime() - start);
+    }
+
+    /**
+     * Records a value of the given metric.
+     *
+     * @param metric The metric to record.
+     * @param value  The recorded value.
+     */
+    public static void record(@NotNull ChatMetric metric, long value) {
+        record(metric, null, value);
+    }
+
+    /**
+     * Records a value of the given metric, attributed to the given source.
+     *
+     * @param metric The metric to record.
+     * @param source The source of the value, such as a plugin name, or null if unknown.
+     * @param value  The recorded value.
+     */
+    public static void record(@NotNull ChatMetric metric, @Nullable String source, long value) {
+        ChatMetricsSink current = sink;
+
+        if (current != ChatMetricsSink.NOOP)
+            current.record(metric, source, value);
+    }
+
+}
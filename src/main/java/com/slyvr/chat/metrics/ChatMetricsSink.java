@@ -0,0 +1,47 @@
+package com.slyvr.chat.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Represents a sink receiving the metrics recorded by the library.
+ * <p>
+ * Values are recorded from any thread, including the server's main thread, so implementations must be thread-safe and
+ * should return as fast as possible.
+ * <p>
+ * Values are recorded along with their source, such as the name of the plugin sending through a render pipeline or
+ * passed to the send methods taking a source, when known. Sinks which don't attribute values to their source only have
+ * to implement {@link #record(ChatMetric, long)}.
+ *
+ * @since 1.0.0
+ * @see ChatMetrics#setSink(ChatMetricsSink)
+ */
+@FunctionalInterface
+public interface ChatMetricsSink {
+
+    /**
+     * The sink ignoring all the recorded values, used by default.
+     */
+    ChatMetricsSink NOOP = (metric, value) -> {
+    };
+
+    /**
+     * Records a value of the given metric.
+     *
+     * @param metric The metric to record.
+     * @param value  The recorded value.
+     */
+    void record(@NotNull ChatMetric metric, long value);
+
+    /**
+     * Records a value of the given metric, attributed to the given source.
+     *
+     * @param metric The metric to record.
+     * @param source The source of the value, such as a plugin name, or null if unknown.
+     * @param value  The recorded value.
+     */
+    default void record(@NotNull ChatMetric metric, @Nullable String source, long value) {
+        this.record(metric, value);
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.slyvr.chat.metrics;
+
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Represents the values recorded for a single metric at a given time.
+ *
+ * @since 1.0.0
+ * @see RecordingMetricsSink
+ */
+public final class MetricSnapshot {
+
+    private final ChatMetric metric;
+    private final long count;
+    private final long sum;
+    private final long[] buckets;
+
+    MetricSnapshot(@NotNull ChatMetric metric, long count, long sum, @NotNull long[] buckets) {
+        this.metric = metric;
+        this.count = count;
+        this.sum = sum;
+        this.buckets = buckets;
+    }
+
+    /**
+     * Gets the metric of this snapshot.
+     *
+     * @return The metric of this snapshot
+     */
+    @NotNull
+    public ChatMetric getMetric() {
+        return metric;
+    }
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return The number of recorded values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the sum of the recorded values.
+     *
+     * @return The sum of the recorded values
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * Gets the mean of the recorded values.
+     *
+     * @return The mean of the recorded values, or 0 if none
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Gets the number of recorded values found in every histogram bucket.
+     *
+     * @return A copy of the histogram buckets
+     *
+     * @see RecordingMetricsSink
+     */
+    @NotNull
+    public long[] getBuckets() {
+        return buckets.clone();
+    }
+
+    /**
+     * Gets an estimation of the given percentile of the recorded values, being the upper bound of the histogram bucket
+     * containing it.
+     *
+     * @param percentile The percentile to estimate, between 0 and 1.
+     *
+     * @return The estimated percentile, or 0 if no value was recorded
+     *
+     * @throws IllegalArgumentException If the percentile is not between 0 and 1.
+     */
+    public long getPercentile(double percentile) {
+        Preconditions.checkArgument(percentile >= 0 && percentile <= 1, "Percentile must be between 0 and 1!");
+
+        long total = 0;
+        for (long bucket : buckets)
+            total += bucket;
+
+        if (total == 0)
+            return 0;
+
+        long target = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+
+            if (seen >= target)
+                return getUpperBound(i);
+        }
+
+        return Long.MAX_VALUE;
+    }
+
+    private static long getUpperBound(int bucket) {
+        if (bucket == 0)
+            return 0;
+
+        return bucket >= Long.SIZE - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricSnapshot{" +
+                "metric=" + metric +
+                ", count=" + count +
+                ", sum=" + sum +
+                ", mean=" + getMean() +
+                '}';
+    }
+
+}
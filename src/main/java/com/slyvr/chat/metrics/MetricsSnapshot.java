@@ -0,0 +1,108 @@
+package com.slyvr.chat.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Represents the values recorded for all the metrics at a given time.
+ *
+ * @since 1.0.0
+ * @see RecordingMetricsSink#snapshot()
+ */
+public final class MetricsSnapshot {
+
+    private final Map<ChatMetric, MetricSnapshot> metrics;
+    private final long start;
+    private final long end;
+
+    MetricsSnapshot(@NotNull Map<ChatMetric, MetricSnapshot> metrics, long start, long end) {
+        this.metrics = Collections.unmodifiableMap(metrics);
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Gets the values recorded for the given metric.
+     *
+     * @param metric The metric to get its values.
+     *
+     * @return The values recorded for the metric
+     */
+    @NotNull
+    public MetricSnapshot get(@NotNull ChatMetric metric) {
+        return metrics.get(metric);
+    }
+
+    /**
+     * Gets the values recorded for all the metrics.
+     *
+     * @return An unmodifiable map of the values recorded for all the metrics
+     */
+    @NotNull
+    public Map<ChatMetric, MetricSnapshot> getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the ratio of hits over all the lookups, from the given hit and miss metrics.
+     *
+     * @param hits   The metric recording the hits.
+     * @param misses The metric recording the misses.
+     *
+     * @return The hit rate between 0 and 1, or 0 if no lookup was recorded
+     */
+    public double getHitRate(@NotNull ChatMetric hits, @NotNull ChatMetric misses) {
+        long hit_count = get(hits).getCount();
+        long total = hit_count + get(misses).getCount();
+
+        return total == 0 ? 0 : (double) hit_count / total;
+    }
+
+    /**
+     * Gets the hit rate of the layout caches.
+     *
+     * @return The hit rate between 0 and 1, or 0 if no layout was requested
+     */
+    public double getLayoutCacheHitRate() {
+        return getHitRate(ChatMetric.LAYOUT_CACHE_HITS, ChatMetric.LAYOUT_CACHE_MISSES);
+    }
+
+    /**
+     * Gets the hit rate of the chat-text pools.
+     *
+     * @return The hit rate between 0 and 1, or 0 if no chat-text was interned
+     */
+    public double getPoolHitRate() {
+        return getHitRate(ChatMetric.POOL_HITS, ChatMetric.POOL_MISSES);
+    }
+
+    /**
+     * Gets the time the recording of this snapshot's values started at.
+     *
+     * @return The start of the recording in milliseconds since the epoch
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * Gets the time this snapshot was taken at.
+     *
+     * @return The time this snapshot was taken at in milliseconds since the epoch
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsSnapshot{" +
+                "start=" + start +
+                ", end=" + end +
+                ", metrics=" + metrics.values() +
+                '}';
+    }
+
+}
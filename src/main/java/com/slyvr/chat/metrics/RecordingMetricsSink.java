@@ -0,0 +1,180 @@
+package com.slyvr.chat.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A metrics sink keeping counts, sums and histograms of every metric, which can be read at any time using
+ * {@link #snapshot()}.
+ * <p>
+ * Values are recorded into {@link LongAdder}s without locking, and histograms use power of two buckets: the bucket
+ * {@code n} holds the values between {@code 2^(n-1)} inclusive and {@code 2^n} exclusive, and the bucket 0 holds zero
+ * and negative values.
+ * <p>
+ * Values attributed to a source are also recorded separately for that source, so the values of every source, such as
+ * the messages sent by every plugin, can be read using {@link #snapshot(String)}.
+ *
+ * @since 1.0.0
+ */
+public final class RecordingMetricsSink implements ChatMetricsSink {
+
+    /**
+     * The number of buckets of every histogram.
+     */
+    public static final int BUCKETS = Long.SIZE + 1;
+
+    private static final ChatMetric[] METRICS = ChatMetric.values();
+
+    private final Recorder[] recorders = createRecorders();
+    private final ConcurrentMap<String, Recorder[]> sources = new ConcurrentHashMap<>();
+    private volatile long start = System.currentTimeMillis();
+
+    /**
+     * Constructs a new recording metrics sink.
+     */
+    public RecordingMetricsSink() {
+    }
+
+    @Override
+    public void record(@NotNull ChatMetric metric, long value) {
+        recorders[metric.ordinal()].record(value);
+    }
+
+    @Override
+    public void record(@NotNull ChatMetric metric, @Nullable String source, long value) {
+        this.record(metric, value);
+
+        if (source != null)
+            this.sources.computeIfAbsent(source, key -> createRecorders())[metric.ordinal()].record(value);
+    }
+
+    /**
+     * Takes a snapshot of all the values recorded since this sink was created or last reset.
+     * <p>
+     * Values recorded while the snapshot is taken may only be partially included.
+     *
+     * @return The snapshot of the recorded values
+     */
+    @NotNull
+    public MetricsSnapshot snapshot() {
+        return snapshot(recorders);
+    }
+
+    /**
+     * Takes a snapshot of all the values attributed to the given source since this sink was created or last reset.
+     *
+     * @param source The source to get its values, such as a plugin name.
+     *
+     * @return The snapshot of the values recorded for the source, or null if none was recorded
+     */
+    @Nullable
+    public MetricsSnapshot snapshot(@NotNull String source) {
+        Recorder[] result = sources.get(source);
+        return result != null ? snapshot(result) : null;
+    }
+
+    /**
+     * Gets all the sources values were attributed to since this sink was created or last reset.
+     *
+     * @return An unmodifiable copy of the sources
+     */
+    @NotNull
+    public Set<String> getSources() {
+        return Collections.unmodifiableSet(new HashSet<>(sources.keySet()));
+    }
+
+    /**
+     * Takes a snapshot of the values of the given recorders.
+     *
+     * @param recorders The recorders of every metric.
+     *
+     * @return The snapshot of the recorded values
+     */
+    @NotNull
+    private MetricsSnapshot snapshot(@NotNull Recorder[] recorders) {
+        Map<ChatMetric, MetricSnapshot> metrics = new EnumMap<>(ChatMetric.class);
+
+        for (ChatMetric metric : METRICS) {
+            Recorder recorder = recorders[metric.ordinal()];
+            long[] buckets = new long[BUCKETS];
+
+            for (int i = 0; i < BUCKETS; i++)
+                buckets[i] = recorder.buckets[i].sum();
+
+            metrics.put(metric, new MetricSnapshot(metric, recorder.count.sum(), recorder.sum.sum(), buckets));
+        }
+
+        return new MetricsSnapshot(metrics, start, System.currentTimeMillis());
+    }
+
+    /**
+     * Clears all the recorded values.
+     */
+    public void reset() {
+        for (Recorder recorder : recorders) {
+            recorder.count.reset();
+            recorder.sum.reset();
+
+            for (LongAdder bucket : recorder.buckets)
+                bucket.reset();
+        }
+
+        this.sources.clear();
+        this.start = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets the histogram bucket of the given value.
+     *
+     * @param value The value to get its bucket.
+     *
+     * @return The bucket of the value
+     */
+    static int getBucket(long value) {
+        return value <= 0 ? 0 : Long.SIZE - Long.numberOfLeadingZeros(value);
+    }
+
+    /**
+     * Creates a new recorder for every metric.
+     *
+     * @return The created recorders, indexed by metric ordinal
+     */
+    @NotNull
+    private static Recorder[] createRecorders() {
+        Recorder[] result = new Recorder[METRICS.length];
+
+        for (int i = 0; i < result.length; i++)
+            result[i] = new Recorder();
+
+        return result;
+    }
+
+    private static final class Recorder {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+        private Recorder() {
+            for (int i = 0; i < BUCKETS; i++)
+                this.buckets[i] = new LongAdder();
+        }
+
+        private void record(long value) {
+            this.count.increment();
+            this.sum.add(value);
+            this.buckets[getBucket(value)].increment();
+        }
+
+    }
+
+}
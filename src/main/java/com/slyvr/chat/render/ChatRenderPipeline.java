@@ -0,0 +1,422 @@
+package com.slyvr.chat.render;
+
+import com.google.common.base.Preconditions;
+import com.slyvr.chat.BroadcastReport;
+import com.slyvr.chat.ChatPayload;
+import com.slyvr.chat.ChatRenderable;
+import com.slyvr.chat.ChatTemplate;
+import com.slyvr.chat.ChatTextSection;
+import com.slyvr.chat.ChatWidthProfile;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A pipeline rendering chat-texts off the main thread and delivering them to players on the main thread.
+ * <p>
+ * Texts, builders and sections are created, measured, wrapped and rendered into chat-payloads on the pipeline's
+ * executor. Rendered payloads waiting to be sent are then delivered together, once per tick, by a task running on the
+ * server's main thread.
+ * <p>
+ * Personalized broadcasts render a separate payload for every recipient. The recipients are split between the threads
+ * of the executor, then all the payloads are delivered in a single pass on the main thread. Sections sent to several
+ * players are only rendered once per {@link ChatWidthProfile width profile} of the recipients.
+ * <p>
+ * The metrics of the sends are attributed to the name of the plugin owning the pipeline, so a
+ * {@link com.slyvr.chat.metrics.RecordingMetricsSink} can tell which plugin is sending the most messages.
+ *
+ * @since 1.0.0
+ */
+public final class ChatRenderPipeline implements AutoCloseable {
+
+    // Number of recipients under which a personalized render isn't split any further.
+    private static final int SPLIT_THRESHOLD = 16;
+
+    private final Queue<Delivery> deliveries = new ConcurrentLinkedQueue<>();
+    private final Executor executor;
+    private final BukkitTask task;
+    private final String source;
+
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new render pipeline, and starts delivering rendered payloads every tick.
+     *
+     * @param plugin   The plugin owning the delivery task.
+     * @param executor The executor to render on.
+     *
+     * @throws NullPointerException If the given plugin or executor is null.
+     */
+    public ChatRenderPipeline(@NotNull Plugin plugin, @NotNull Executor executor) {
+        Preconditions.checkNotNull(plugin, "Plugin cannot be null!");
+        Preconditions.checkNotNull(executor, "Executor cannot be null!");
+
+        this.executor = executor;
+        this.source = plugin.getName();
+        this.task = plugin.getServer().getScheduler().runTaskTimer(plugin, this::deliver, 1L, 1L);
+    }
+
+    /**
+     * Constructs a new render pipeline rendering on the common fork-join pool, and starts delivering rendered payloads
+     * every tick.
+     *
+     * @param plugin The plugin owning the delivery task.
+     *
+     * @throws NullPointerException If the given plugin is null.
+     */
+    public ChatRenderPipeline(@NotNull Plugin plugin) {
+        this(plugin, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates and renders the supplied object on this pipeline's executor.
+     *
+     * @param supplier The supplier creating the object to render.
+     *
+     * @return A future completed with the rendered payload
+     *
+     * @throws NullPointerException  If the given supplier is null.
+     * @throws IllegalStateException If this pipeline is closed.
+     */
+    @NotNull
+    public CompletableFuture<ChatPayload> render(@NotNull Supplier<? extends ChatRenderable> supplier) {
+        Preconditions.checkNotNull(supplier, "Supplier cannot be null!");
+        Preconditions.checkState(!closed, "The render pipeline is closed!");
+
+        return CompletableFuture.supplyAsync(() -> supplier.get().toPayload(), executor);
+    }
+
+    /**
+     * Creates and renders the supplied object on this pipeline's executor, then sends it to the given players during
+     * the next tick.
+     *
+     * @param supplier The supplier creating the object to render.
+     * @param players  The players to display the rendered object for.
+     *
+     * @return A future completed with the report of the broadcast once delivered
+     *
+     * @throws NullPointerException  If the given supplier or players collection is null.
+     * @throws IllegalStateException If this pipeline is closed.
+     */
+    @NotNull
+    public CompletableFuture<BroadcastReport> send(@NotNull Supplier<? extends ChatRenderable> supplier, @NotNull Collection<? extends Player> players) {
+        Preconditions.checkNotNull(players, "Players collection cannot be null!");
+
+        List<Player> recipients = new ArrayList<>(players);
+        return render(supplier).thenCompose(payload -> schedule(new Delivery(payload, null, recipients, new CompletableFuture<>())));
+    }
+
+    /**
+     * Sends an already rendered payload to the given players during the next tick.
+     *
+     * @param payload The payload to send.
+     * @param players The players to display the payload for.
+     *
+     * @return A future completed with the report of the broadcast once delivered
+     *
+     * @throws NullPointerException  If the given payload or players collection is null.
+     * @throws IllegalStateException If this pipeline is closed.
+     */
+    @NotNull
+    public CompletableFuture<BroadcastReport> send(@NotNull ChatPayload payload, @NotNull Collection<? extends Player> players) {
+        Preconditions.checkNotNull(payload, "Payload cannot be null!");
+        Preconditions.checkNotNull(players, "Players collection cannot be null!");
+        Preconditions.checkState(!closed, "The render pipeline is closed!");
+
+        return schedule(new Delivery(payload, null, new ArrayList<>(players), new CompletableFuture<>()));
+    }
+
+    /**
+     * Renders a personalized object for every given player on this pipeline's executor, then sends every player its own
+     * payload during the next tick.
+     * <p>
+     * Sections are laid out for the {@link ChatWidthProfile width profile} of their player, resolved when this method
+     * is called. The resolver is called on the executor's threads, so it must only read thread-safe player data, such
+     * as names or locales. It may return the same section for several players since sections are thread-safe to
+     * render, but must not return a text or builder rendered by another player at the same time.
+     * <p>
+     * When rendering on a {@link ForkJoinPool}, the recipients are recursively split between its workers, otherwise
+     * they are submitted to the executor in chunks.
+     *
+     * @param players  The players to display the rendered objects for.
+     * @param resolver The resolver creating the object to render for every player.
+     *
+     * @return A future completed with the report of the broadcast once delivered, counting the largest number of
+     * messages sent to a player
+     *
+     * @throws NullPointerException  If the given players collection or resolver is null.
+     * @throws IllegalStateException If this pipeline is closed.
+     */
+    @NotNull
+    public CompletableFuture<BroadcastReport> sendPersonalized(@NotNull Collection<? extends Player> players, @NotNull Function<? super Player, ? extends ChatRenderable> resolver) {
+        Preconditions.checkNotNull(players, "Players collection cannot be null!");
+        Preconditions.checkNotNull(resolver, "Resolver cannot be null!");
+        Preconditions.checkState(!closed, "The render pipeline is closed!");
+
+        List<Player> recipients = new ArrayList<>(players.size());
+        for (Player player : players) {
+            if (player != null)
+                recipients.add(player);
+        }
+
+        ChatWidthProfile[] profiles = new ChatWidthProfile[recipients.size()];
+        for (int i = 0; i < profiles.length; i++)
+            profiles[i] = ChatWidthProfile.of(recipients.get(i));
+
+        ChatPayload[] payloads = new ChatPayload[recipients.size()];
+        PersonalizedRender render = new PersonalizedRender(recipients, profiles, resolver, payloads, 0, payloads.length);
+
+        return renderAll(render).thenCompose(ignored -> schedule(new Delivery(null, Arrays.asList(payloads), recipients, new CompletableFuture<>())));
+    }
+
+    /**
+     * Renders the given section for every given player on this pipeline's executor, then sends it to every player
+     * during the next tick.
+     * <p>
+     * The section is rendered once per distinct {@link ChatWidthProfile width profile} of the players, resolved when
+     * this method is called, and every player is sent the payload of its profile.
+     *
+     * @param section The section to render.
+     * @param players The players to display the section for.
+     *
+     * @return A future completed with the report of the broadcast once delivered, counting the largest number of
+     * messages sent to a player
+     *
+     * @throws NullPointerException  If the given section or players collection is null.
+     * @throws IllegalStateException If this pipeline is closed.
+     * @see ChatTextSection#toPayload(ChatWidthProfile)
+     */
+    @NotNull
+    public CompletableFuture<BroadcastReport> sendPersonalized(@NotNull ChatTextSection section, @NotNull Collection<? extends Player> players) {
+        Preconditions.checkNotNull(section, "Section cannot be null!");
+        Preconditions.checkNotNull(players, "Players collection cannot be null!");
+        Preconditions.checkState(!closed, "The render pipeline is closed!");
+
+        List<Player> recipients = new ArrayList<>(players.size());
+        List<ChatWidthProfile> profiles = new ArrayList<>(players.size());
+
+        for (Player player : players) {
+            if (player == null)
+                continue;
+
+            recipients.add(player);
+            profiles.add(ChatWidthProfile.of(player));
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            Map<ChatWidthProfile, ChatPayload> rendered = new HashMap<>(4);
+            List<ChatPayload> payloads = new ArrayList<>(profiles.size());
+
+            for (ChatWidthProfile profile : profiles)
+                payloads.add(rendered.computeIfAbsent(profile, section::toPayload));
+
+            return payloads;
+        }, executor).thenCompose(payloads -> schedule(new Delivery(null, payloads, recipients, new CompletableFuture<>())));
+    }
+
+    /**
+     * Formats the given template with the values of every given player on this pipeline's executor, then sends every
+     * player its own message during the next tick.
+     *
+     * @param template The template to format.
+     * @param players  The players to display the formatted template for.
+     * @param values   The resolver giving the values of the template's slots for every player.
+     *
+     * @return A future completed with the report of the broadcast once delivered
+     *
+     * @throws NullPointerException  If the given template, players collection or values resolver is null.
+     * @throws IllegalStateException If this pipeline is closed.
+     * @see #sendPersonalized(Collection, Function)
+     */
+    @NotNull
+    public CompletableFuture<BroadcastReport> sendPersonalized(@NotNull ChatTemplate template, @NotNull Collection<? extends Player> players, @NotNull Function<? super Player, Object[]> values) {
+        Preconditions.checkNotNull(template, "Template cannot be null!");
+        Preconditions.checkNotNull(values, "Values resolver cannot be null!");
+
+        return sendPersonalized(players, player -> template.toBuilder(values.apply(player)));
+    }
+
+    /**
+     * Gets the number of rendered payloads waiting to be delivered.
+     *
+     * @return The number of rendered payloads waiting to be delivered
+     */
+    public int getPendingDeliveries() {
+        return deliveries.size();
+    }
+
+    /**
+     * Checks if this pipeline is closed.
+     *
+     * @return True if this pipeline is closed, otherwise false
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Stops delivering rendered payloads, and cancels all the pending deliveries.
+     */
+    @Override
+    public void close() {
+        if (closed)
+            return;
+
+        this.closed = true;
+        this.task.cancel();
+
+        Delivery delivery;
+        while ((delivery = deliveries.poll()) != null)
+            delivery.future.completeExceptionally(new CancellationException("The render pipeline was closed!"));
+    }
+
+    @NotNull
+    private CompletableFuture<BroadcastReport> schedule(@NotNull Delivery delivery) {
+        this.deliveries.add(delivery);
+
+        // The pipeline may have been closed while the payload was being rendered.
+        if (closed && deliveries.remove(delivery))
+            delivery.future.completeExceptionally(new CancellationException("The render pipeline was closed!"));
+
+        return delivery.future;
+    }
+
+    /**
+     * Runs the given personalized render on this pipeline's executor.
+     *
+     * @param render The render covering all the recipients.
+     *
+     * @return A future completed once all the payloads are rendered
+     */
+    @NotNull
+    private CompletableFuture<Void> renderAll(@NotNull PersonalizedRender render) {
+        if (executor instanceof ForkJoinPool)
+            return CompletableFuture.runAsync(render::invoke, executor);
+
+        // Other executors cannot split the work themselves, so it is submitted in chunks small enough to spread.
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+
+        for (int start = render.start; start < render.end; start += SPLIT_THRESHOLD) {
+            PersonalizedRender chunk = render.slice(start, Math.min(start + SPLIT_THRESHOLD, render.end));
+            chunks.add(CompletableFuture.runAsync(chunk::invoke, executor));
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Delivers all the pending payloads, called once per tick on the main thread.
+     */
+    private void deliver() {
+        Delivery delivery;
+
+        while ((delivery = deliveries.poll()) != null) {
+            try {
+                if (delivery.payload != null)
+                    delivery.future.complete(delivery.payload.broadcast(delivery.players, source));
+                else
+                    delivery.future.complete(ChatPayload.broadcastPersonalized(delivery.players, delivery.payloads, source));
+            } catch (RuntimeException e) {
+                delivery.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static final class Delivery {
+
+        // Either a payload shared by all the players, or the payload of every player.
+        private final ChatPayload payload;
+        private final List<ChatPayload> payloads;
+        private final List<Player> players;
+        private final CompletableFuture<BroadcastReport> future;
+
+        private Delivery(@Nullable ChatPayload payload, @Nullable List<ChatPayload> payloads, @NotNull List<Player> players, @NotNull CompletableFuture<BroadcastReport> future) {
+            this.payload = payload;
+            this.payloads = payloads;
+            this.players = players;
+            this.future = future;
+        }
+
+    }
+
+    /**
+     * Renders the personalized payloads of a range of recipients, splitting the range in halves until small enough.
+     */
+    private static final class PersonalizedRender extends RecursiveAction {
+
+        private final List<Player> players;
+        private final ChatWidthProfile[] profiles;
+        private final Function<? super Player, ? extends ChatRenderable> resolver;
+        private final ChatPayload[] payloads;
+
+        private final int start;
+        private final int end;
+
+        private PersonalizedRender(@NotNull List<Player> players, @NotNull ChatWidthProfile[] profiles, @NotNull Function<? super Player, ? extends ChatRenderable> resolver, @NotNull ChatPayload[] payloads, int start, int end) {
+            this.players = players;
+            this.profiles = profiles;
+            this.resolver = resolver;
+            this.payloads = payloads;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= SPLIT_THRESHOLD) {
+                for (int i = start; i < end; i++)
+                    this.payloads[i] = render(i);
+
+                return;
+            }
+
+            int middle = (start + end) >>> 1;
+            invokeAll(slice(start, middle), slice(middle, end));
+        }
+
+        @NotNull
+        private PersonalizedRender slice(int start, int end) {
+            return new PersonalizedRender(players, profiles, resolver, payloads, start, end);
+        }
+
+        /**
+         * Renders the payload of the recipient at the given index.
+         *
+         * @param index The index of the recipient.
+         *
+         * @return The rendered payload
+         *
+         * @throws NullPointerException If the resolver returned null.
+         */
+        @NotNull
+        private ChatPayload render(int index) {
+            ChatRenderable renderable = resolver.apply(players.get(index));
+            Preconditions.checkNotNull(renderable, "Resolved object to render cannot be null!");
+
+            if (renderable instanceof ChatTextSection)
+                return ((ChatTextSection) renderable).toPayload(profiles[index]);
+
+            return renderable.toPayload();
+        }
+
+    }
+
+}
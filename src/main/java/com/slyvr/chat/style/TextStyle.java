@@ -109,6 +109,15 @@ public enum TextStyle {
         return color.asBungee();
     }
 
+    /**
+     * Gets the mask of this text-style, used by {@link TextStyleSet}.
+     *
+     * @return The mask of this text-style, or 0 for {@link #NONE}
+     */
+    public int getMask() {
+        return this == NONE ? 0 : 1 << ordinal();
+    }
+
     /**
      * Applies the given style to the given component.
      *
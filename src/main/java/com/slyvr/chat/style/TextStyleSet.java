@@ -0,0 +1,230 @@
+package com.slyvr.chat.style;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Represents an immutable set of text-styles, backed by a bitmask of their {@link TextStyle#getMask() masks}.
+ * <p>
+ * Every possible set is cached, so checking, merging and applying styles never allocates.
+ *
+ * @since 1.0.0
+ */
+public final class TextStyleSet {
+
+    /**
+     * The mask containing all the text-styles.
+     */
+    public static final int ALL_STYLES = 0x1F;
+
+    private static final TextStyle[] STYLES = {TextStyle.BOLD, TextStyle.ITALIC, TextStyle.UNDERLINE, TextStyle.OBFUSCATED, TextStyle.STRIKETHROUGH};
+    private static final TextStyleSet[] SETS = new TextStyleSet[ALL_STYLES + 1];
+
+    static {
+        for (int mask = 0; mask < SETS.length; mask++)
+            SETS[mask] = new TextStyleSet(mask);
+    }
+
+    private final int mask;
+
+    private TextStyleSet(int mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * Gets the empty text-style set.
+     *
+     * @return The empty text-style set
+     */
+    @NotNull
+    public static TextStyleSet empty() {
+        return SETS[0];
+    }
+
+    /**
+     * Gets the text-style set containing the given styles. The styles preceding {@link TextStyle#NONE} are ignored.
+     *
+     * @param styles The styles of the set or null for none.
+     *
+     * @return The text-style set containing the given styles
+     */
+    @NotNull
+    public static TextStyleSet of(@Nullable TextStyle... styles) {
+        return SETS[0].withStyles(styles);
+    }
+
+    /**
+     * Gets the text-style set represented by the given mask. Bits not belonging to any text-style are ignored.
+     *
+     * @param mask The mask of the set.
+     *
+     * @return The text-style set represented by the given mask
+     */
+    @NotNull
+    public static TextStyleSet fromMask(int mask) {
+        return SETS[mask & ALL_STYLES];
+    }
+
+    /**
+     * Gets the mask of this text-style set.
+     *
+     * @return The mask of this text-style set
+     */
+    public int getMask() {
+        return mask;
+    }
+
+    /**
+     * Checks if this text-style set contains the given style. {@link TextStyle#NONE} is only contained in empty sets.
+     *
+     * @param style The style to check.
+     *
+     * @return True if this set contains the given style, otherwise false
+     */
+    public boolean hasStyle(@Nullable TextStyle style) {
+        if (style == null)
+            return false;
+
+        return style == TextStyle.NONE ? mask == 0 : (mask & style.getMask()) != 0;
+    }
+
+    /**
+     * Checks if this text-style set is empty.
+     *
+     * @return True if this set is empty, otherwise false
+     */
+    public boolean isEmpty() {
+        return mask == 0;
+    }
+
+    /**
+     * Gets the number of styles this text-style set contains.
+     *
+     * @return The number of styles this set contains
+     */
+    public int size() {
+        return Integer.bitCount(mask);
+    }
+
+    /**
+     * Gets the text-style set containing the styles of this set and the given styles. {@link TextStyle#NONE} removes
+     * all the styles preceding it.
+     *
+     * @param styles The styles to add or null for none.
+     *
+     * @return The text-style set containing the styles of this set and the given styles
+     */
+    @NotNull
+    public TextStyleSet withStyles(@Nullable TextStyle... styles) {
+        if (styles == null)
+            return this;
+
+        int result = mask;
+
+        for (TextStyle style : styles) {
+            if (style == null)
+                continue;
+
+            result = style == TextStyle.NONE ? 0 : result | style.getMask();
+        }
+
+        return SETS[result];
+    }
+
+    /**
+     * Gets the text-style set containing the styles of this set and the given set.
+     *
+     * @param styles The styles to add or null for none.
+     *
+     * @return The text-style set containing the styles of both sets
+     */
+    @NotNull
+    public TextStyleSet withStyles(@Nullable TextStyleSet styles) {
+        return styles != null ? SETS[mask | styles.mask] : this;
+    }
+
+    /**
+     * Gets the text-style set containing the styles of this set except the given styles.
+     *
+     * @param styles The styles to remove or null for none.
+     *
+     * @return The text-style set containing the styles of this set except the given styles
+     */
+    @NotNull
+    public TextStyleSet withoutStyles(@Nullable TextStyle... styles) {
+        if (styles == null)
+            return this;
+
+        int result = mask;
+
+        for (TextStyle style : styles) {
+            if (style != null)
+                result &= ~style.getMask();
+        }
+
+        return SETS[result];
+    }
+
+    /**
+     * Sets all the style flags of the given component, enabling the styles this set contains and disabling the others.
+     *
+     * @param component The component to apply the styles to.
+     */
+    public void applyTo(@NotNull BaseComponent component) {
+        if (component == null)
+            return;
+
+        component.setObfuscated((mask & TextStyle.OBFUSCATED.getMask()) != 0);
+        component.setBold((mask & TextStyle.BOLD.getMask()) != 0);
+        component.setStrikethrough((mask & TextStyle.STRIKETHROUGH.getMask()) != 0);
+        component.setUnderlined((mask & TextStyle.UNDERLINE.getMask()) != 0);
+        component.setItalic((mask & TextStyle.ITALIC.getMask()) != 0);
+    }
+
+    /**
+     * Gets the styles of this text-style set as an array.
+     *
+     * @return A new array containing the styles of this set
+     */
+    @NotNull
+    public TextStyle[] toArray() {
+        TextStyle[] result = new TextStyle[size()];
+        int index = 0;
+
+        for (TextStyle style : STYLES) {
+            if ((mask & style.getMask()) != 0)
+                result[index++] = style;
+        }
+
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj || (obj instanceof TextStyleSet && mask == ((TextStyleSet) obj).mask);
+    }
+
+    @Override
+    public int hashCode() {
+        return mask;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("TextStyleSet[");
+
+        for (TextStyle style : STYLES) {
+            if ((mask & style.getMask()) == 0)
+                continue;
+
+            if (builder.charAt(builder.length() - 1) != '[')
+                builder.append(", ");
+
+            builder.append(style);
+        }
+
+        return builder.append(']').toString();
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.slyvr.chat.style;
+
+/**
+ * Represents the ways texts too wide for the chat are wrapped over multiple lines.
+ *
+ * @since 1.0.0
+ */
+public enum TextWrap {
+
+    /**
+     * Breaks lines at the first character exceeding the chat's width, even in the middle of a word.
+     */
+    CHARACTER,
+
+    /**
+     * Breaks lines at the last space fitting in the chat's width, only breaking words wider than a whole line.
+     */
+    WORD
+
+}
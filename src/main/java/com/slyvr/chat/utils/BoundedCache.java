@@ -0,0 +1,126 @@
+package com.slyvr.chat.utils;
+
+import com.slyvr.chat.metrics.ChatMetric;
+import com.slyvr.chat.metrics.ChatMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A thread-safe cache holding a bounded number of entries, evicting the least recently used ones first.
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ *
+ * @since 1.0.0
+ */
+final class BoundedCache<K, V> {
+
+    private final Map<K, V> entries;
+    private final int maximum_size;
+
+    private final ChatMetric hit_metric;
+    private final ChatMetric miss_metric;
+
+    private long hits;
+    private long misses;
+
+    /**
+     * Constructs a new bounded cache.
+     *
+     * @param maximumSize The maximum number of entries to keep.
+     * @param hitMetric   The metric to record the hits with.
+     * @param missMetric  The metric to record the misses with.
+     */
+    BoundedCache(int maximumSize, @NotNull ChatMetric hitMetric, @NotNull ChatMetric missMetric) {
+        this.maximum_size = maximumSize;
+        this.hit_metric = hitMetric;
+        this.miss_metric = missMetric;
+        this.entries = new LinkedHashMap<K, V>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maximum_size;
+            }
+        };
+    }
+
+    /**
+     * Gets the value mapped to the given key, computing and caching it if absent.
+     * <p>
+     * The value is computed outside the cache's lock, so concurrent misses on the same key may compute it more than once.
+     *
+     * @param key      The key to get its value.
+     * @param function The function computing the value when absent.
+     *
+     * @return The cached or computed value
+     */
+    @NotNull
+    V get(@NotNull K key, @NotNull Function<? super K, ? extends V> function) {
+        V value = lookup(key);
+        return value != null ? value : store(key, function.apply(key));
+    }
+
+    /**
+     * Gets the value mapped to the given key, recording a hit or a miss.
+     *
+     * @param key The key to get its value.
+     *
+     * @return The cached value, or null if absent
+     */
+    @Nullable
+    V lookup(@NotNull K key) {
+        V value;
+
+        synchronized (this) {
+            value = entries.get(key);
+
+            if (value != null)
+                this.hits++;
+            else
+                this.misses++;
+        }
+
+        ChatMetrics.record(value != null ? hit_metric : miss_metric, 1L);
+        return value;
+    }
+
+    /**
+     * Caches the given value under the given key, unless a value was cached concurrently.
+     *
+     * @param key   The key to cache the value under.
+     * @param value The value to cache.
+     *
+     * @return The value cached under the key
+     */
+    @NotNull
+    V store(@NotNull K key, @NotNull V value) {
+        synchronized (this) {
+            V previous = entries.putIfAbsent(key, value);
+            return previous != null ? previous : value;
+        }
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    int getMaximumSize() {
+        return maximum_size;
+    }
+
+    synchronized void clear() {
+        this.entries.clear();
+    }
+
+}
@@ -0,0 +1,203 @@
+package com.slyvr.chat.utils;
+
+import com.google.common.base.Preconditions;
+import com.slyvr.chat.ChatText;
+import com.slyvr.chat.metrics.ChatMetric;
+import com.slyvr.chat.style.TextColor;
+import com.slyvr.chat.style.TextStyle;
+import com.slyvr.chat.style.TextStyleSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A bounded pool of canonical chat-texts, evicting the least recently used ones first.
+ * <p>
+ * Interning the same text, color and styles always returns the same {@link ChatText#freeze() frozen} chat-text while it
+ * stays pooled, so frequently reused fragments such as prefixes, separators and icons are only built once. Since pooled
+ * chat-texts are frozen, they can be shared between threads and appended to any text-builder, which copies a frozen part
+ * before modifying it.
+ *
+ * @since 1.0.0
+ */
+public final class ChatTextPool {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 512;
+
+    private static final ChatTextPool SHARED = new ChatTextPool(DEFAULT_MAXIMUM_SIZE);
+
+    private final BoundedCache<Object, ChatText> cache;
+
+    /**
+     * Constructs a new chat-text pool.
+     *
+     * @param maximumSize The maximum number of chat-texts to keep.
+     *
+     * @throws IllegalArgumentException If the maximum size is not positive.
+     */
+    public ChatTextPool(int maximumSize) {
+        Preconditions.checkArgument(maximumSize > 0, "Maximum size must be positive!");
+
+        this.cache = new BoundedCache<>(maximumSize, ChatMetric.POOL_HITS, ChatMetric.POOL_MISSES);
+    }
+
+    /**
+     * Gets the chat-text pool shared by all the plugins.
+     *
+     * @return The shared chat-text pool
+     */
+    @NotNull
+    public static ChatTextPool getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Gets the canonical chat-text with the given text, color and styles.
+     *
+     * @param text   The text content of the chat-text.
+     * @param color  The color to display the text with or null for none.
+     * @param styles The styles to format the text with or null for none.
+     *
+     * @return The canonical frozen chat-text
+     *
+     * @throws NullPointerException If the given text is null.
+     */
+    @NotNull
+    public ChatText intern(@NotNull String text, @Nullable TextColor color, @Nullable TextStyle... styles) {
+        return intern(text, color, TextStyleSet.of(styles));
+    }
+
+    /**
+     * Gets the canonical chat-text with the given text, color and styles.
+     *
+     * @param text   The text content of the chat-text.
+     * @param color  The color to display the text with or null for none.
+     * @param styles The styles to format the text with or null for none.
+     *
+     * @return The canonical frozen chat-text
+     *
+     * @throws NullPointerException If the given text is null.
+     */
+    @NotNull
+    public ChatText intern(@NotNull String text, @Nullable TextColor color, @Nullable TextStyleSet styles) {
+        Preconditions.checkNotNull(text, "The text content cannot be null!");
+
+        int mask = styles != null ? styles.getMask() : 0;
+        return cache.get(new FragmentKey(text, color, mask), ChatTextPool::create);
+    }
+
+    /**
+     * Gets the canonical chat-text equal to the given chat-text, including its click and hover events.
+     *
+     * @param text The chat-text to intern.
+     *
+     * @return The canonical frozen chat-text
+     *
+     * @throws NullPointerException If the given chat-text is null.
+     */
+    @NotNull
+    public ChatText intern(@NotNull ChatText text) {
+        Preconditions.checkNotNull(text, "Cannot intern a null chat-text!");
+
+        // Frozen and unfrozen chat-texts are equal, so the snapshot is only taken on a miss.
+        ChatText result = cache.lookup(text);
+        if (result != null)
+            return result;
+
+        // A frozen chat-text never changes, so it can be used as its own key.
+        ChatText frozen = text.freeze();
+        return cache.store(frozen, frozen);
+    }
+
+    /**
+     * Gets the number of chat-texts found in this pool.
+     *
+     * @return The number of pool hits
+     */
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    /**
+     * Gets the number of chat-texts that had to be created.
+     *
+     * @return The number of pool misses
+     */
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    /**
+     * Gets the ratio of chat-texts found in this pool over all the interned chat-texts.
+     *
+     * @return The hit rate between 0 and 1, or 0 if no chat-text was interned yet
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long total = hits + getMisses();
+
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Gets the number of chat-texts currently pooled.
+     *
+     * @return The number of chat-texts currently pooled
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Gets the maximum number of chat-texts this pool keeps.
+     *
+     * @return The maximum number of chat-texts this pool keeps
+     */
+    public int getMaximumSize() {
+        return cache.getMaximumSize();
+    }
+
+    /**
+     * Removes all the pooled chat-texts. Previously interned chat-texts stay valid.
+     */
+    public void clear() {
+        this.cache.clear();
+    }
+
+    @NotNull
+    private static ChatText create(@NotNull Object key) {
+        FragmentKey fragment = (FragmentKey) key;
+        return new ChatText(fragment.text, fragment.color).style(TextStyleSet.fromMask(fragment.styles)).freeze();
+    }
+
+    private static final class FragmentKey {
+
+        private final String text;
+        private final TextColor color;
+        private final int styles;
+
+        private FragmentKey(@NotNull String text, @Nullable TextColor color, int styles) {
+            this.text = text;
+            this.color = color;
+            this.styles = styles;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+
+            if (obj == null || getClass() != obj.getClass())
+                return false;
+
+            FragmentKey other = (FragmentKey) obj;
+            return color == other.color && styles == other.styles && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * text.hashCode() + (color != null ? color.ordinal() + 1 : 0)) + styles;
+        }
+
+    }
+
+}
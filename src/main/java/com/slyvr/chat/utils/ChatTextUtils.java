@@ -1,15 +1,26 @@
 package com.slyvr.chat.utils;
 
+import com.google.common.base.Preconditions;
+import com.slyvr.chat.metrics.ChatMetric;
+import com.slyvr.chat.metrics.ChatMetrics;
+import com.slyvr.chat.style.TextWrap;
 import net.md_5.bungee.api.chat.TextComponent;
 import org.bukkit.ChatColor;
-import org.bukkit.map.MapFont;
 import org.bukkit.map.MinecraftFont;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 /**
  * Utilities for chat-texts.
@@ -20,7 +31,8 @@ public final class ChatTextUtils {
 
     public static final int DEFAULT_CHAT_WIDTH = 320;
 
-    private static final Map<Character, int[]> CUSTOM_CHARS = new HashMap<>();
+    // Number of characters measured at once when laying out a text passed as a char sequence.
+    private static final int WINDOW_LENGTH = 512;
 
     private ChatTextUtils() {
     }
@@ -34,18 +46,7 @@ public final class ChatTextUtils {
      * @return The width of the character
      */
     public static int getCharacterWidth(char character, boolean bold) {
-        if (character == ' ')
-            return 3;
-
-        MapFont.CharacterSprite sprite = MinecraftFont.Font.getChar(character);
-        if (sprite != null)
-            return bold ? sprite.getWidth() + 1 : sprite.getWidth();
-
-        int[] data = CUSTOM_CHARS.get(character);
-        if (data != null)
-            return bold ? data[1] : data[0];
-
-        return 5;
+        return FontWidthRegistry.getCurrent().getWidth(character, bold);
     }
 
     /**
@@ -59,22 +60,71 @@ public final class ChatTextUtils {
         return getCharacterWidth(character, false);
     }
 
+    /**
+     * Gets the width of a code point, including supplementary code points.
+     *
+     * @param codePoint The code point to get its width.
+     * @param bold      True if the code point is bold, otherwise false.
+     *
+     * @return The width of the code point
+     */
+    public static int getCharacterWidth(int codePoint, boolean bold) {
+        return FontWidthRegistry.getCurrent().getWidth(codePoint, bold);
+    }
+
     /**
      * Sets the width of a custom unregistered character.
+     * <p>
+     * Characters known by {@link MinecraftFont} cannot be overridden, and widths outside the range 1-127 are ignored.
+     * Setting a width publishes a new {@link FontWidthRegistry} snapshot, so it can be called from any thread.
      *
      * @param character The character to register.
      * @param width     The width of the character when normal.
      * @param bold      The width of the character when bold.
      */
     public static void setCharacterWidth(char character, int width, int bold) {
-        if (width <= 0 || bold <= 0)
+        if (width <= 0 || bold <= 0 || width > FontWidthRegistry.MAXIMUM_WIDTH || bold > FontWidthRegistry.MAXIMUM_WIDTH)
             return;
 
-        MapFont.CharacterSprite sprite = MinecraftFont.Font.getChar(character);
-        if (sprite != null)
+        if (character == ' ' || MinecraftFont.Font.getChar(character) != null)
             return;
 
-        ChatTextUtils.CUSTOM_CHARS.put(character, new int[]{width, bold});
+        FontWidthRegistry.register(new FontMetrics(new int[]{character}, new byte[]{(byte) width}, new byte[]{(byte) bold}));
+    }
+
+    /**
+     * Sets the width of a custom unregistered code point, including supplementary code points.
+     *
+     * @param codePoint The code point to register.
+     * @param width     The width of the code point when normal.
+     * @param bold      The width of the code point when bold.
+     *
+     * @see #setCharacterWidth(char, int, int)
+     */
+    public static void setCharacterWidth(int codePoint, int width, int bold) {
+        if (codePoint >= 0 && codePoint <= Character.MAX_VALUE) {
+            setCharacterWidth((char) codePoint, width, bold);
+            return;
+        }
+
+        if (!Character.isValidCodePoint(codePoint) || width <= 0 || bold <= 0 || width > FontWidthRegistry.MAXIMUM_WIDTH || bold > FontWidthRegistry.MAXIMUM_WIDTH)
+            return;
+
+        FontWidthRegistry.register(new FontMetrics(new int[]{codePoint}, new byte[]{(byte) width}, new byte[]{(byte) bold}));
+    }
+
+    /**
+     * Sets the widths of all the glyphs of the given font metrics at once.
+     * <p>
+     * Unlike {@link #setCharacterWidth(char, int, int)}, the widths of the characters known by {@link MinecraftFont} are
+     * overridden, since resource-packs can redefine them. The width of the space is never overridden.
+     * <p>
+     * All the widths are published at once as a single new {@link FontWidthRegistry} snapshot.
+     *
+     * @param metrics The font metrics to register.
+     */
+    public static void setCharacterWidths(@NotNull FontMetrics metrics) {
+        FontWidthRegistry.register(metrics);
     }
 
     /**
@@ -85,33 +135,15 @@ public final class ChatTextUtils {
      * @return The width of the text
      */
     public static int getTextWidth(@NotNull String text) {
-        int maximum = text.length() - 1;
-        int result = 0;
-
-        boolean isColor = false;
-        boolean isBold = false;
-
-        for (int i = 0; i < text.length(); i++) {
-            char character = text.charAt(i);
-
-            // Checking if the current character is a COLOR_CHAR for later use.
-            if (character == ChatColor.COLOR_CHAR) {
-                isColor = true;
-                continue;
-            }
+        long start = ChatMetrics.start();
 
-            // Checking if bold.
-            if (isColor) {
-                isColor = false;
-                isBold = (character == 'l' || character == 'L');
-                continue;
-            }
+        LegacyTextCursor cursor = new LegacyTextCursor(text);
+        int result = 0;
 
-            result += getCharacterWidth(character, isBold);
-            if (character != ' ' && i != maximum)
-                result++;
-        }
+        while (cursor.nextRun())
+            result += cursor.getRunWidth();
 
+        ChatMetrics.stop(ChatMetric.TEXT_WIDTH, start);
         return result;
     }
 
@@ -123,7 +155,19 @@ public final class ChatTextUtils {
      * @return The number of spaces required to center the text, or 0 if none
      */
     public static int getSpacesToCenter(int width) {
-        int difference = DEFAULT_CHAT_WIDTH - width;
+        return getSpacesToCenter(width, DEFAULT_CHAT_WIDTH);
+    }
+
+    /**
+     * Gets the number spaces required to center a text based on the provided width, in a chat of the given width.
+     *
+     * @param width     The width of the text to center.
+     * @param chatWidth The width of the chat.
+     *
+     * @return The number of spaces required to center the text, or 0 if none
+     */
+    public static int getSpacesToCenter(int width, int chatWidth) {
+        int difference = chatWidth - width;
         return difference > 6 ? difference / 6 : 0;
     }
 
@@ -135,7 +179,20 @@ public final class ChatTextUtils {
      * @return The number of spaces required to align to the right, or 0 if none
      */
     public static int getSpacesToRight(int width) {
-        int difference = DEFAULT_CHAT_WIDTH - width;
+        return getSpacesToRight(width, DEFAULT_CHAT_WIDTH);
+    }
+
+    /**
+     * Gets the number spaces required to align a text to the right based on the provided width, in a chat of the given
+     * width.
+     *
+     * @param width     The width of the text to align to the right.
+     * @param chatWidth The width of the chat.
+     *
+     * @return The number of spaces required to align to the right, or 0 if none
+     */
+    public static int getSpacesToRight(int width, int chatWidth) {
+        int difference = chatWidth - width;
         return difference > 3 ? difference / 3 : 0;
     }
 
@@ -173,54 +230,145 @@ public final class ChatTextUtils {
      */
     @NotNull
     public static List<String> split(@NotNull String text, int spaces) {
-        List<String> lines = new ArrayList<>();
+        return split(text, spaces, DEFAULT_CHAT_WIDTH);
+    }
 
-        int text_width = spaces * 3;
-        int last_index = 0;
+    /**
+     * Splits the given text into lines based on the specified initial spaces, in a chat of the given width.
+     *
+     * @param text      The text to be split into lines.
+     * @param spaces    The number of initial spaces to count.
+     * @param chatWidth The width of the chat.
+     *
+     * @return A list of lines representing different segments of the input text
+     */
+    @NotNull
+    public static List<String> split(@NotNull String text, int spaces, int chatWidth) {
+        return split(text, spaces, chatWidth, TextWrap.CHARACTER);
+    }
 
-        boolean isColor = false;
-        boolean isBold = false;
+    /**
+     * Splits the given text into lines based on the specified initial spaces, passing every line to the given consumer
+     * as soon as it is complete.
+     *
+     * @param text     The text to be split into lines.
+     * @param spaces   The number of initial spaces to count.
+     * @param consumer The consumer accepting the lines.
+     *
+     * @see #split(String, int)
+     */
+    public static void split(@NotNull CharSequence text, int spaces, @NotNull Consumer<? super String> consumer) {
+        split(text, spaces, DEFAULT_CHAT_WIDTH, consumer);
+    }
+
+    /**
+     * Splits the given text into lines based on the specified initial spaces in a chat of the given width, passing
+     * every line to the given consumer as soon as it is complete.
+     *
+     * @param text      The text to be split into lines.
+     * @param spaces    The number of initial spaces to count.
+     * @param chatWidth The width of the chat.
+     * @param consumer  The consumer accepting the lines.
+     *
+     * @see #split(String, int, int)
+     */
+    public static void split(@NotNull CharSequence text, int spaces, int chatWidth, @NotNull Consumer<? super String> consumer) {
+        split(text, spaces, chatWidth, TextWrap.CHARACTER, consumer);
+    }
+
+    /**
+     * Splits the given text into lines based on the specified initial spaces in a chat of the given width, breaking the
+     * lines according to the given wrap mode.
+     * <p>
+     * The text is measured once into a {@link TextWidthIndex}, and every break is found using a binary search.
+     *
+     * @param text      The text to be split into lines.
+     * @param spaces    The number of initial spaces to count.
+     * @param chatWidth The width of the chat.
+     * @param wrap      The way lines are broken.
+     *
+     * @return A list of lines representing different segments of the input text
+     *
+     * @throws NullPointerException If the given wrap mode is null.
+     */
+    @NotNull
+    public static List<String> split(@NotNull String text, int spaces, int chatWidth, @NotNull TextWrap wrap) {
+        Preconditions.checkNotNull(wrap, "Wrap mode cannot be null!");
+
+        long start = ChatMetrics.start();
+        List<String> lines = new ArrayList<>();
 
         String empty = ChatColor.RESET + getEmptyLine(spaces);
-        for (int i = 0; i < text.length(); i++) {
-            char character = text.charAt(i);
+        wrap(new TextWidthIndex(text), width -> empty, chatWidth - spaces * 3, wrap, true, lines::add);
 
-            // Checking if the current character is a COLOR_CHAR for later use.
-            if (character == ChatColor.COLOR_CHAR) {
-                isColor = true;
-                continue;
-            }
+        ChatMetrics.stop(ChatMetric.SPLIT, start);
+        return lines;
+    }
 
-            // Checking if bold.
-            if (isColor) {
-                isColor = false;
-                isBold = (character == 'l' || character == 'L');
-                continue;
-            }
+    /**
+     * Splits the given text into lines based on the specified initial spaces in a chat of the given width, breaking the
+     * lines according to the given wrap mode, and passing every line to the given consumer as soon as it is complete.
+     * <p>
+     * The text is measured into a {@link TextWidthIndex} one window at a time, the window only growing to hold a line
+     * longer than it, so large texts are laid out in constant memory.
+     *
+     * @param text      The text to be split into lines.
+     * @param spaces    The number of initial spaces to count.
+     * @param chatWidth The width of the chat.
+     * @param wrap      The way lines are broken.
+     * @param consumer  The consumer accepting the lines.
+     *
+     * @throws NullPointerException If the given wrap mode is null.
+     */
+    public static void split(@NotNull CharSequence text, int spaces, int chatWidth, @NotNull TextWrap wrap, @NotNull Consumer<? super String> consumer) {
+        Preconditions.checkNotNull(wrap, "Wrap mode cannot be null!");
 
-            int char_width = getCharacterWidth(character, isBold);
-            if (character != ' ' && i != text.length() - 1)
-                char_width++;
+        long start = ChatMetrics.start();
 
-            if (text_width + char_width <= ChatTextUtils.DEFAULT_CHAT_WIDTH) {
-                text_width += char_width;
-                continue;
-            }
+        String empty = ChatColor.RESET + getEmptyLine(spaces);
+        wrap(text, width -> empty, chatWidth - spaces * 3, wrap, consumer);
 
-            if (!lines.isEmpty())
-                lines.add(empty + ChatColor.getLastColors(lines.get(lines.size() - 1)) + text.substring(last_index, last_index = i));
-            else
-                lines.add(empty + text.substring(last_index, last_index = i));
+        ChatMetrics.stop(ChatMetric.SPLIT, start);
+    }
 
-            text_width = spaces * 3;
-        }
+    /**
+     * Splits every line read from the given reader into lines based on the specified initial spaces, passing every line
+     * to the given consumer as soon as it is complete. Only one line of the reader is held in memory at a time, and the
+     * formatting of a line doesn't carry over to the following one.
+     * <p>
+     * The reader is read until its end, but not closed.
+     *
+     * @param reader   The reader to read the lines from.
+     * @param spaces   The number of initial spaces to count.
+     * @param consumer The consumer accepting the lines.
+     *
+     * @throws IOException If the reader fails to be read.
+     */
+    public static void split(@NotNull Reader reader, int spaces, @NotNull Consumer<? super String> consumer) throws IOException {
+        BufferedReader buffered = toBufferedReader(reader);
 
-        if (!lines.isEmpty())
-            lines.add(empty + ChatColor.getLastColors(lines.get(lines.size() - 1)) + text.substring(last_index));
-        else
-            lines.add(empty + text.substring(last_index));
+        String line;
+        while ((line = buffered.readLine()) != null)
+            split(line, spaces, consumer);
+    }
 
-        return lines;
+    /**
+     * Gets an iterator splitting every line read from the given reader into lines based on the specified initial spaces.
+     * Lines are only read when the iterator needs them, and the formatting of a line doesn't carry over to the following
+     * one.
+     * <p>
+     * The reader is not closed, and failures to read it are thrown as {@link UncheckedIOException}.
+     *
+     * @param reader The reader to read the lines from.
+     * @param spaces The number of initial spaces to count.
+     *
+     * @return An iterator over the split lines
+     *
+     * @see #split(Reader, int, Consumer)
+     */
+    @NotNull
+    public static Iterator<String> splitLines(@NotNull Reader reader, int spaces) {
+        return new LineIterator(toBufferedReader(reader), spaces, false);
     }
 
     /**
@@ -245,50 +393,144 @@ public final class ChatTextUtils {
      */
     @NotNull
     public static List<String> align(@NotNull String text, int factor) {
-        List<String> lines = new ArrayList<>();
+        return align(text, factor, DEFAULT_CHAT_WIDTH);
+    }
 
-        int text_width = 0;
-        int last_index = 0;
+    /**
+     * Aligns the given text into multiple lines based on the specified factor, in a chat of the given width.
+     *
+     * @param text      The text to be aligned and split into lines.
+     * @param factor    The factor by which the text width will be divided for alignment.
+     * @param chatWidth The width of the chat.
+     *
+     * @return A list of aligned lines, each representing a segment of the input text
+     */
+    @NotNull
+    public static List<String> align(@NotNull String text, int factor, int chatWidth) {
+        return align(text, factor, chatWidth, TextWrap.CHARACTER);
+    }
 
-        boolean isColor = false;
-        boolean isBold = false;
+    /**
+     * Aligns the given text into multiple lines based on the specified factor, passing every line to the given consumer
+     * as soon as it is complete.
+     *
+     * @param text     The text to be aligned and split into lines.
+     * @param factor   The factor by which the text width will be divided for alignment.
+     * @param consumer The consumer accepting the lines.
+     *
+     * @see #align(String, int)
+     */
+    public static void align(@NotNull CharSequence text, int factor, @NotNull Consumer<? super String> consumer) {
+        align(text, factor, DEFAULT_CHAT_WIDTH, consumer);
+    }
 
-        for (int i = 0; i < text.length(); i++) {
-            char character = text.charAt(i);
+    /**
+     * Aligns the given text into multiple lines based on the specified factor in a chat of the given width, passing
+     * every line to the given consumer as soon as it is complete.
+     *
+     * @param text      The text to be aligned and split into lines.
+     * @param factor    The factor by which the text width will be divided for alignment.
+     * @param chatWidth The width of the chat.
+     * @param consumer  The consumer accepting the lines.
+     *
+     * @see #align(String, int, int)
+     */
+    public static void align(@NotNull CharSequence text, int factor, int chatWidth, @NotNull Consumer<? super String> consumer) {
+        align(text, factor, chatWidth, TextWrap.CHARACTER, consumer);
+    }
 
-            // Checking if the current character is a COLOR_CHAR for later use.
-            if (character == ChatColor.COLOR_CHAR) {
-                isColor = true;
-                continue;
-            }
+    /**
+     * Aligns the given text into multiple lines based on the specified factor in a chat of the given width, breaking
+     * the lines according to the given wrap mode. Every line is aligned for its own width, since word wrapping leaves
+     * a different width free on every line.
+     * <p>
+     * The text is measured once into a {@link TextWidthIndex}, and every break is found using a binary search.
+     *
+     * @param text      The text to be aligned and split into lines.
+     * @param factor    The factor by which the text width will be divided for alignment.
+     * @param chatWidth The width of the chat.
+     * @param wrap      The way lines are broken.
+     *
+     * @return A list of aligned lines, each representing a segment of the input text
+     *
+     * @throws NullPointerException If the given wrap mode is null.
+     */
+    @NotNull
+    public static List<String> align(@NotNull String text, int factor, int chatWidth, @NotNull TextWrap wrap) {
+        Preconditions.checkNotNull(wrap, "Wrap mode cannot be null!");
 
-            // Checking if bold.
-            if (isColor) {
-                isColor = false;
-                isBold = (character == 'l' || character == 'L');
-                continue;
-            }
+        long start = ChatMetrics.start();
+        List<String> lines = new ArrayList<>();
 
-            int char_width = getCharacterWidth(character, isBold);
-            if (character != ' ' && i != text.length() - 1)
-                char_width++;
+        wrap(new TextWidthIndex(text), width -> ChatColor.RESET + getEmptyLine((chatWidth - width) / factor), chatWidth, wrap, true, lines::add);
 
-            if (text_width + char_width <= ChatTextUtils.DEFAULT_CHAT_WIDTH) {
-                text_width += char_width;
-                continue;
-            }
+        ChatMetrics.stop(ChatMetric.ALIGN, start);
+        return lines;
+    }
 
-            lines.add(text.substring(last_index, (last_index = i)));
-            text_width = 0;
-        }
+    /**
+     * Aligns the given text into multiple lines based on the specified factor in a chat of the given width, breaking
+     * the lines according to the given wrap mode, and passing every line to the given consumer as soon as it is
+     * complete. Every line is aligned for its own width.
+     * <p>
+     * The text is measured into a {@link TextWidthIndex} one window at a time, the window only growing to hold a line
+     * longer than it, so large texts are laid out in constant memory.
+     *
+     * @param text      The text to be aligned and split into lines.
+     * @param factor    The factor by which the text width will be divided for alignment.
+     * @param chatWidth The width of the chat.
+     * @param wrap      The way lines are broken.
+     * @param consumer  The consumer accepting the lines.
+     *
+     * @throws NullPointerException If the given wrap mode is null.
+     */
+    public static void align(@NotNull CharSequence text, int factor, int chatWidth, @NotNull TextWrap wrap, @NotNull Consumer<? super String> consumer) {
+        Preconditions.checkNotNull(wrap, "Wrap mode cannot be null!");
 
-        String empty = ChatColor.RESET + getEmptyLine((DEFAULT_CHAT_WIDTH - text_width) / factor);
-        if (!lines.isEmpty())
-            lines.add(empty + ChatColor.getLastColors(lines.get(lines.size() - 1)) + text.substring(last_index));
-        else
-            lines.add(empty + text.substring(last_index));
+        long start = ChatMetrics.start();
 
-        return lines;
+        wrap(text, width -> ChatColor.RESET + getEmptyLine((chatWidth - width) / factor), chatWidth, wrap, consumer);
+        ChatMetrics.stop(ChatMetric.ALIGN, start);
+    }
+
+    /**
+     * Aligns every line read from the given reader into multiple lines based on the specified factor, passing every line
+     * to the given consumer as soon as it is complete. Only one line of the reader is held in memory at a time, and the
+     * formatting of a line doesn't carry over to the following one.
+     * <p>
+     * The reader is read until its end, but not closed.
+     *
+     * @param reader   The reader to read the lines from.
+     * @param factor   The factor by which the text width will be divided for alignment.
+     * @param consumer The consumer accepting the lines.
+     *
+     * @throws IOException If the reader fails to be read.
+     */
+    public static void align(@NotNull Reader reader, int factor, @NotNull Consumer<? super String> consumer) throws IOException {
+        BufferedReader buffered = toBufferedReader(reader);
+
+        String line;
+        while ((line = buffered.readLine()) != null)
+            align(line, factor, consumer);
+    }
+
+    /**
+     * Gets an iterator aligning every line read from the given reader into multiple lines based on the specified factor.
+     * Lines are only read when the iterator needs them, and the formatting of a line doesn't carry over to the following
+     * one.
+     * <p>
+     * The reader is not closed, and failures to read it are thrown as {@link UncheckedIOException}.
+     *
+     * @param reader The reader to read the lines from.
+     * @param factor The factor by which the text width will be divided for alignment.
+     *
+     * @return An iterator over the aligned lines
+     *
+     * @see #align(Reader, int, Consumer)
+     */
+    @NotNull
+    public static Iterator<String> alignLines(@NotNull Reader reader, int factor) {
+        return new LineIterator(toBufferedReader(reader), factor, true);
     }
 
     /**
@@ -333,4 +575,213 @@ public final class ChatTextUtils {
         return dest;
     }
 
-}
\ No newline at end of file
+    /**
+     * Breaks the measured text into lines fitting in the given width, passing them to the given consumer. A line always
+     * holds at least one character, and is started with the prefix given for its width.
+     * <p>
+     * When the measured text is a window followed by more text, the lines reaching its end may hold more characters
+     * once the following text is measured, so they are left out and the ordinal the first of them starts at is returned.
+     *
+     * @param index    The measured text.
+     * @param prefix   The function giving the prefix of a line from its width.
+     * @param maxWidth The maximum width of the characters of a line.
+     * @param wrap     The way lines are broken.
+     * @param complete True if the measured text is the whole text, false if it is followed by more text.
+     * @param consumer The consumer accepting the lines.
+     *
+     * @return The ordinal of the first line left out, or -1 if all the lines were passed to the consumer
+     */
+    private static int wrap(@NotNull TextWidthIndex index, @NotNull IntFunction<String> prefix, int maxWidth, @NotNull TextWrap wrap, boolean complete, @NotNull Consumer<? super String> consumer) {
+        CharSequence text = index.getText();
+        int from = 0;
+
+        while (true) {
+            int to = Math.max(index.findBreak(from, maxWidth), from + 1);
+            int next = to;
+
+            // Words are kept whole by breaking at the last space instead, which is dropped from both lines.
+            if (wrap == TextWrap.WORD && to < index.size()) {
+                int space = index.findLastSpace(from + 1, to);
+
+                if (space != -1) {
+                    to = space;
+                    next = space + 1;
+                }
+            }
+
+            if (!complete && next >= index.size())
+                return from;
+
+            if (to >= index.size()) {
+                consumer.accept(createLine(prefix.apply(getLineWidth(index, from, index.size())), getLineFormatting(index, from), text, getLineStart(index, from), text.length()));
+                return -1;
+            }
+
+            consumer.accept(createLine(prefix.apply(getLineWidth(index, from, to)), getLineFormatting(index, from), text, getLineStart(index, from), index.getIndex(to)));
+
+            // A dropped space ending the text leaves nothing after the break, rather than an empty last line.
+            if (next == index.size())
+                return -1;
+
+            from = next;
+        }
+    }
+
+    /**
+     * Breaks the given text into lines fitting in the given width, passing them to the given consumer. The text is
+     * measured one window at a time, every window starting at the first line left out by the previous one, with the
+     * formatting codes active there. A window is only grown when a single line doesn't fit in it.
+     *
+     * @param text     The text to break.
+     * @param prefix   The function giving the prefix of a line from its width.
+     * @param maxWidth The maximum width of the characters of a line.
+     * @param wrap     The way lines are broken.
+     * @param consumer The consumer accepting the lines.
+     */
+    private static void wrap(@NotNull CharSequence text, @NotNull IntFunction<String> prefix, int maxWidth, @NotNull TextWrap wrap, @NotNull Consumer<? super String> consumer) {
+        int length = text.length();
+        int start = 0;
+        int window_length = WINDOW_LENGTH;
+        String formatting = "";
+
+        while (true) {
+            int end = (int) Math.min(length, (long) start + window_length);
+
+            // A surrogate pair is never split between two windows, so its code point is measured as a whole.
+            if (end < length && end - start > 1 && Character.isHighSurrogate(text.charAt(end - 1)))
+                end--;
+
+            CharSequence window = new StringBuilder(formatting.length() + end - start).append(formatting).append(text, start, end);
+            TextWidthIndex index = new TextWidthIndex(window);
+
+            int left = wrap(index, prefix, maxWidth, wrap, end == length, consumer);
+            if (left == -1)
+                return;
+
+            if (left == 0) {
+                window_length *= 2;
+                continue;
+            }
+
+            start += index.getIndex(left) - formatting.length();
+            formatting = index.getFormatting(left);
+            window_length = WINDOW_LENGTH;
+        }
+    }
+
+    /**
+     * Gets the width of the visible characters of a line, without the gap following its last character.
+     *
+     * @param index The measured text.
+     * @param from  The ordinal of the first character of the line, inclusive.
+     * @param to    The ordinal of the last character of the line, exclusive.
+     *
+     * @return The width of the line
+     */
+    private static int getLineWidth(@NotNull TextWidthIndex index, int from, int to) {
+        int result = index.getWidth(from, to);
+
+        // The last character of the text is already measured without its gap.
+        return to > from && to < index.size() && !index.isSpace(to - 1) ? result - 1 : result;
+    }
+
+    /**
+     * Gets the index in the text a line starting at the given ordinal starts at. The first line starts at the start of
+     * the text, so it includes the formatting codes preceding its first character.
+     *
+     * @param index   The measured text.
+     * @param ordinal The ordinal of the first character of the line.
+     *
+     * @return The index the line starts at
+     */
+    private static int getLineStart(@NotNull TextWidthIndex index, int ordinal) {
+        return ordinal == 0 ? 0 : index.getIndex(ordinal);
+    }
+
+    /**
+     * Gets the formatting codes to start a line starting at the given ordinal with.
+     *
+     * @param index   The measured text.
+     * @param ordinal The ordinal of the first character of the line.
+     *
+     * @return The formatting codes active at the line's start, or an empty string if none are needed
+     */
+    @NotNull
+    private static String getLineFormatting(@NotNull TextWidthIndex index, int ordinal) {
+        return ordinal == 0 || ordinal == index.size() ? "" : index.getFormatting(ordinal);
+    }
+
+    /**
+     * Creates a line from the given prefix, formatting codes and section of text.
+     *
+     * @param prefix     The prefix to start the line with.
+     * @param formatting The formatting codes to apply after the prefix.
+     * @param text       The text to take the section from.
+     * @param start      The index of the section's start, inclusive.
+     * @param end        The index of the section's end, exclusive.
+     *
+     * @return The created line
+     */
+    @NotNull
+    private static String createLine(@NotNull String prefix, @NotNull String formatting, @NotNull CharSequence text, int start, int end) {
+        return new StringBuilder(prefix.length() + formatting.length() + end - start)
+                .append(prefix)
+                .append(formatting)
+                .append(text, start, end)
+                .toString();
+    }
+
+    @NotNull
+    private static BufferedReader toBufferedReader(@NotNull Reader reader) {
+        return reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    private static final class LineIterator implements Iterator<String> {
+
+        private final Deque<String> pending = new ArrayDeque<>();
+        private final BufferedReader reader;
+
+        // The number of initial spaces when splitting, or the alignment factor when aligning.
+        private final int amount;
+        private final boolean aligned;
+
+        private LineIterator(@NotNull BufferedReader reader, int amount, boolean aligned) {
+            this.reader = reader;
+            this.amount = amount;
+            this.aligned = aligned;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!pending.isEmpty())
+                return true;
+
+            String line;
+            try {
+                line = reader.readLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            if (line == null)
+                return false;
+
+            if (aligned)
+                align(line, amount, pending::add);
+            else
+                split(line, amount, pending::add);
+
+            return true;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext())
+                throw new NoSuchElementException("There are no more lines to lay out!");
+
+            return pending.poll();
+        }
+
+    }
+
+}
@@ -0,0 +1,200 @@
+package com.slyvr.chat.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Represents an immutable set of glyph widths, indexed by code point.
+ * <p>
+ * Widths are stored as signed bytes, so glyphs with a negative advance, such as the negative spaces of resource-packs,
+ * reduce the width of the texts they are part of.
+ * <p>
+ * Font metrics are usually loaded using {@link FontMetricsLoader}, then registered all at once using
+ * {@link #register()}, which fills the width lookup of {@link ChatTextUtils} in bulk.
+ *
+ * @since 1.0.0
+ */
+public final class FontMetrics {
+
+    /**
+     * The width returned for the code points these font metrics don't contain, which no glyph can have.
+     */
+    public static final int UNKNOWN_WIDTH = Integer.MIN_VALUE;
+
+    // Header of the binary width file: magic, version, number of glyphs. Version 1 files stored unsigned widths.
+    static final int MAGIC = 0x58434657;
+    static final byte VERSION = 2;
+    static final byte UNSIGNED_VERSION = 1;
+    static final int HEADER_SIZE = 9;
+    static final int ENTRY_SIZE = 6;
+
+    final int[] code_points;
+    final byte[] normal_widths;
+    final byte[] bold_widths;
+
+    /**
+     * Constructs new font metrics. The given arrays are not copied, and the code points must be sorted in ascending
+     * order without duplicates.
+     *
+     * @param codePoints   The code points of the glyphs.
+     * @param normalWidths The widths of the glyphs when normal.
+     * @param boldWidths   The widths of the glyphs when bold.
+     */
+    FontMetrics(@NotNull int[] codePoints, @NotNull byte[] normalWidths, @NotNull byte[] boldWidths) {
+        this.code_points = codePoints;
+        this.normal_widths = normalWidths;
+        this.bold_widths = boldWidths;
+    }
+
+    /**
+     * Gets the number of glyphs of these font metrics.
+     *
+     * @return The number of glyphs
+     */
+    public int size() {
+        return code_points.length;
+    }
+
+    /**
+     * Checks if these font metrics contain the width of the given code point.
+     *
+     * @param codePoint The code point to check.
+     *
+     * @return True if the width of the code point is known, otherwise false
+     */
+    public boolean contains(int codePoint) {
+        return Arrays.binarySearch(code_points, codePoint) >= 0;
+    }
+
+    /**
+     * Gets the width of the given code point.
+     *
+     * @param codePoint The code point to get its width.
+     * @param bold      True if the code point is bold, otherwise false.
+     *
+     * @return The width of the code point, which can be negative, or {@link #UNKNOWN_WIDTH} if unknown
+     */
+    public int getWidth(int codePoint, boolean bold) {
+        int index = Arrays.binarySearch(code_points, codePoint);
+        if (index < 0)
+            return UNKNOWN_WIDTH;
+
+        return bold ? bold_widths[index] : normal_widths[index];
+    }
+
+    /**
+     * Registers all the widths of these font metrics at once, overriding the widths already known.
+     *
+     * @see ChatTextUtils#setCharacterWidths(FontMetrics)
+     */
+    public void register() {
+        ChatTextUtils.setCharacterWidths(this);
+    }
+
+    /**
+     * Writes these font metrics to the given file, in the binary format read by
+     * {@link FontMetricsLoader#loadBinary(Path)}.
+     *
+     * @param file The file to write to.
+     *
+     * @throws IOException If the file fails to be written.
+     */
+    public void writeTo(@NotNull Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + ENTRY_SIZE * code_points.length);
+
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.putInt(code_points.length);
+
+        for (int i = 0; i < code_points.length; i++) {
+            buffer.putInt(code_points[i]);
+            buffer.put(normal_widths[i]);
+            buffer.put(bold_widths[i]);
+        }
+
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FontMetrics{" +
+                "glyphs=" + code_points.length +
+                '}';
+    }
+
+    /**
+     * Collects glyph widths in any order, the first width given for a code point being kept.
+     */
+    static final class Builder {
+
+        private final Map<Integer, Integer> widths = new TreeMap<>();
+
+        /**
+         * Adds the width of the given code point, unless already added.
+         * <p>
+         * Zero and negative widths are kept, since invisible glyphs and negative spaces are common in resource-packs.
+         * Widths are stored as signed bytes, so they are clamped between -128 and 127.
+         *
+         * @param codePoint The code point of the glyph.
+         * @param width     The width of the glyph when normal.
+         * @param bold      The width of the glyph when bold.
+         */
+        void add(int codePoint, int width, int bold) {
+            this.widths.putIfAbsent(codePoint, clamp(width) << 8 | clamp(bold) & 0xFF);
+        }
+
+        /**
+         * Clamps the given width to the range of widths which can be stored.
+         *
+         * @param width The width to clamp.
+         *
+         * @return The width between -128 and 127
+         */
+        private static int clamp(int width) {
+            return Math.max(FontWidthRegistry.MINIMUM_WIDTH, Math.min(width, FontWidthRegistry.MAXIMUM_WIDTH));
+        }
+
+        /**
+         * Checks if the width of the given code point was already added.
+         *
+         * @param codePoint The code point to check.
+         *
+         * @return True if the code point was already added, otherwise false
+         */
+        boolean contains(int codePoint) {
+            return widths.containsKey(codePoint);
+        }
+
+        @NotNull
+        FontMetrics build() {
+            int[] code_points = new int[widths.size()];
+            byte[] normal_widths = new byte[code_points.length];
+            byte[] bold_widths = new byte[code_points.length];
+
+            int index = 0;
+            for (Map.Entry<Integer, Integer> entry : widths.entrySet()) {
+                code_points[index] = entry.getKey();
+                normal_widths[index] = (byte) (entry.getValue() >> 8);
+                bold_widths[index] = (byte) (int) entry.getValue();
+                index++;
+            }
+
+            return new FontMetrics(code_points, normal_widths, bold_widths);
+        }
+
+    }
+
+}
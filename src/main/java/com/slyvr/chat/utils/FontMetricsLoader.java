@@ -0,0 +1,341 @@
+package com.slyvr.chat.utils;
+
+import com.google.common.base.Preconditions;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.jetbrains.annotations.NotNull;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+/**
+ * Loads font metrics from resource-packs or from precomputed binary width files.
+ * <p>
+ * Resource-pack fonts are read from their {@code bitmap}, {@code space} and {@code reference} providers, the other
+ * provider types being ignored. Loading the glyph images of a resource-pack can take a while, so the loaded metrics can
+ * be saved once using {@link FontMetrics#writeTo(Path)}, then loaded back from the binary width file, which is memory
+ * mapped and read in bulk.
+ *
+ * @since 1.0.0
+ */
+public final class FontMetricsLoader {
+
+    /**
+     * The font used by the chat by default.
+     */
+    public static final String DEFAULT_FONT = "minecraft:default";
+
+    private static final int DEFAULT_GLYPH_HEIGHT = 8;
+
+    private FontMetricsLoader() {
+    }
+
+    /**
+     * Loads the metrics of the default font of the given resource-pack.
+     *
+     * @param pack The resource-pack's directory or zip file.
+     *
+     * @return The loaded font metrics
+     *
+     * @throws IOException If the resource-pack fails to be read.
+     * @see #loadResourcePack(Path, String)
+     */
+    @NotNull
+    public static FontMetrics loadResourcePack(@NotNull Path pack) throws IOException {
+        return loadResourcePack(pack, DEFAULT_FONT);
+    }
+
+    /**
+     * Loads the metrics of the given font of the given resource-pack.
+     * <p>
+     * Glyph widths are measured from the bitmap images the same way the client does, from the rightmost non-transparent
+     * column of every glyph, scaled to the provider's height. When multiple providers define the same code point, the
+     * first one is kept.
+     *
+     * @param pack The resource-pack's directory or zip file.
+     * @param font The font's key, such as {@code "minecraft:default"}.
+     *
+     * @return The loaded font metrics
+     *
+     * @throws IOException If the resource-pack or one of its fonts fails to be read.
+     */
+    @NotNull
+    public static FontMetrics loadResourcePack(@NotNull Path pack, @NotNull String font) throws IOException {
+        Preconditions.checkNotNull(pack, "Resource-pack cannot be null!");
+        Preconditions.checkNotNull(font, "Font cannot be null!");
+
+        FontMetrics.Builder builder = new FontMetrics.Builder();
+
+        if (Files.isDirectory(pack)) {
+            loadFont(pack, font, builder, new HashSet<>());
+            return builder.build();
+        }
+
+        try (FileSystem zip = FileSystems.newFileSystem(pack, (ClassLoader) null)) {
+            loadFont(zip.getPath("/"), font, builder, new HashSet<>());
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Loads the font metrics of the given binary width file, as written by {@link FontMetrics#writeTo(Path)}.
+     * <p>
+     * The file is memory mapped, and its entries are copied in bulk without any intermediate object.
+     *
+     * @param file The binary width file.
+     *
+     * @return The loaded font metrics
+     *
+     * @throws IOException If the file fails to be read or is not a valid width file.
+     */
+    @NotNull
+    public static FontMetrics loadBinary(@NotNull Path file) throws IOException {
+        Preconditions.checkNotNull(file, "File cannot be null!");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < FontMetrics.HEADER_SIZE)
+                throw new IOException("Invalid font width file: " + file);
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return read(buffer, file);
+        }
+    }
+
+    @NotNull
+    private static FontMetrics read(@NotNull ByteBuffer buffer, @NotNull Path file) throws IOException {
+        if (buffer.getInt() != FontMetrics.MAGIC)
+            throw new IOException("Invalid font width file: " + file);
+
+        byte version = buffer.get();
+        if (version != FontMetrics.VERSION && version != FontMetrics.UNSIGNED_VERSION)
+            throw new IOException("Invalid font width file: " + file);
+
+        int count = buffer.getInt();
+        if (count < 0 || buffer.remaining() != (long) count * FontMetrics.ENTRY_SIZE)
+            throw new IOException("Truncated font width file: " + file);
+
+        int[] code_points = new int[count];
+        byte[] normal_widths = new byte[count];
+        byte[] bold_widths = new byte[count];
+
+        int previous = -1;
+        for (int i = 0; i < count; i++) {
+            int code_point = buffer.getInt();
+
+            if (code_point <= previous || code_point > Character.MAX_CODE_POINT)
+                throw new IOException("Unsorted font width file: " + file);
+
+            code_points[i] = previous = code_point;
+            normal_widths[i] = buffer.get();
+            bold_widths[i] = buffer.get();
+        }
+
+        // Files written before widths were signed are converted, their widths above 127 being clamped.
+        if (version == FontMetrics.UNSIGNED_VERSION) {
+            for (int i = 0; i < count; i++) {
+                normal_widths[i] = toSigned(normal_widths[i]);
+                bold_widths[i] = toSigned(bold_widths[i]);
+            }
+        }
+
+        return new FontMetrics(code_points, normal_widths, bold_widths);
+    }
+
+    /**
+     * Loads the providers of the given font into the given builder.
+     *
+     * @param root    The root of the resource-pack.
+     * @param font    The font's key.
+     * @param builder The builder to add the widths to.
+     * @param loaded  The fonts already loaded, to ignore cyclic references.
+     *
+     * @throws IOException If the font fails to be read.
+     */
+    private static void loadFont(@NotNull Path root, @NotNull String font, @NotNull FontMetrics.Builder builder, @NotNull Set<String> loaded) throws IOException {
+        if (!loaded.add(font))
+            return;
+
+        Path definition = resolve(root, font, "font", ".json");
+        if (!Files.isRegularFile(definition))
+            throw new IOException("Missing font definition: " + definition);
+
+        JsonObject json;
+        try (Reader reader = Files.newBufferedReader(definition, StandardCharsets.UTF_8)) {
+            json = JsonParser.parseReader(reader).getAsJsonObject();
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new IOException("Invalid font definition: " + definition, e);
+        }
+
+        JsonElement providers = json.get("providers");
+        if (providers == null || !providers.isJsonArray())
+            return;
+
+        for (JsonElement element : providers.getAsJsonArray()) {
+            if (!element.isJsonObject())
+                continue;
+
+            JsonObject provider = element.getAsJsonObject();
+            JsonElement type = provider.get("type");
+
+            if (type == null)
+                continue;
+
+            switch (type.getAsString()) {
+                case "bitmap":
+                    loadBitmap(root, provider, builder);
+                    break;
+                case "space":
+                    loadSpace(provider, builder);
+                    break;
+                case "reference":
+                    loadFont(root, provider.get("id").getAsString(), builder, loaded);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Measures the glyphs of a bitmap provider and adds their widths to the given builder.
+     *
+     * @param root     The root of the resource-pack.
+     * @param provider The bitmap provider.
+     * @param builder  The builder to add the widths to.
+     *
+     * @throws IOException If the provider's image fails to be read.
+     */
+    private static void loadBitmap(@NotNull Path root, @NotNull JsonObject provider, @NotNull FontMetrics.Builder builder) throws IOException {
+        JsonArray rows = provider.getAsJsonArray("chars");
+        if (rows == null || rows.size() == 0)
+            return;
+
+        Path file = resolve(root, provider.get("file").getAsString(), "textures", "");
+
+        BufferedImage image;
+        try (InputStream input = Files.newInputStream(file)) {
+            image = ImageIO.read(input);
+        }
+
+        if (image == null)
+            throw new IOException("Unreadable font bitmap: " + file);
+
+        int height = provider.has("height") ? provider.get("height").getAsInt() : DEFAULT_GLYPH_HEIGHT;
+        int columns = rows.get(0).getAsString().codePointCount(0, rows.get(0).getAsString().length());
+
+        int cell_width = image.getWidth() / Math.max(columns, 1);
+        int cell_height = image.getHeight() / rows.size();
+        float scale = (float) height / cell_height;
+
+        for (int row = 0; row < rows.size(); row++) {
+            PrimitiveIterator.OfInt code_points = rows.get(row).getAsString().codePoints().iterator();
+
+            for (int column = 0; code_points.hasNext(); column++) {
+                int code_point = code_points.nextInt();
+
+                // The null character is used to fill the unused cells.
+                if (code_point == 0 || code_point == ' ' || builder.contains(code_point))
+                    continue;
+
+                int width = (int) (0.5F + getGlyphWidth(image, column * cell_width, row * cell_height, cell_width, cell_height) * scale);
+                builder.add(code_point, width, width + 1);
+            }
+        }
+    }
+
+    /**
+     * Converts a width stored unsigned to a signed width.
+     *
+     * @param width The unsigned width.
+     *
+     * @return The width, clamped to 127
+     */
+    private static byte toSigned(byte width) {
+        return (byte) Math.min(width & 0xFF, FontWidthRegistry.MAXIMUM_WIDTH);
+    }
+
+    /**
+     * Adds the widths of the glyphs of a space provider to the given builder.
+     *
+     * @param provider The space provider.
+     * @param builder  The builder to add the widths to.
+     */
+    private static void loadSpace(@NotNull JsonObject provider, @NotNull FontMetrics.Builder builder) {
+        JsonObject advances = provider.getAsJsonObject("advances");
+        if (advances == null)
+            return;
+
+        for (Map.Entry<String, JsonElement> entry : advances.entrySet()) {
+            int code_point = entry.getKey().codePointAt(0);
+            if (code_point == ' ')
+                continue;
+
+            // Advances include the gap following the glyph, which is added back when measuring, so a negative space of
+            // -8 is stored as -9 and still measured as -8 within a text.
+            int width = entry.getValue().getAsInt() - 1;
+            builder.add(code_point, width, width + 1);
+        }
+    }
+
+    /**
+     * Gets the width of the glyph in the given cell of the given image, from its rightmost non-transparent column.
+     *
+     * @param image  The image containing the glyph.
+     * @param x      The horizontal position of the cell.
+     * @param y      The vertical position of the cell.
+     * @param width  The width of the cell.
+     * @param height The height of the cell.
+     *
+     * @return The width of the glyph, or 0 if the cell is empty
+     */
+    private static int getGlyphWidth(@NotNull BufferedImage image, int x, int y, int width, int height) {
+        for (int column = width - 1; column >= 0; column--) {
+            for (int row = 0; row < height; row++) {
+                if ((image.getRGB(x + column, y + row) >>> 24) != 0)
+                    return column + 1;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Resolves the path of the given resource inside a resource-pack.
+     *
+     * @param root      The root of the resource-pack.
+     * @param key       The resource's key, such as {@code "minecraft:font/ascii.png"}.
+     * @param directory The directory of the resource's type.
+     * @param extension The extension to append to the resource's path.
+     *
+     * @return The path of the resource
+     */
+    @NotNull
+    private static Path resolve(@NotNull Path root, @NotNull String key, @NotNull String directory, @NotNull String extension) {
+        int separator = key.indexOf(':');
+
+        String namespace = separator != -1 ? key.substring(0, separator) : "minecraft";
+        String path = separator != -1 ? key.substring(separator + 1) : key;
+
+        return root.resolve("assets").resolve(namespace).resolve(directory).resolve(path + extension);
+    }
+
+}
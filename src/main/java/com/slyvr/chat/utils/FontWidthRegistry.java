@@ -0,0 +1,228 @@
+package com.slyvr.chat.utils;
+
+import org.bukkit.map.MapFont;
+import org.bukkit.map.MinecraftFont;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Represents an immutable snapshot of all the known glyph widths.
+ * <p>
+ * Registering widths never modifies a snapshot, it publishes a new one with a greater {@link #getVersion() version}
+ * instead, copying only the parts of the width tables that changed. Reading widths therefore never blocks nor races
+ * with a registration, and anything computed from glyph widths can tell it became outdated by comparing the version it
+ * was computed with to {@link #getCurrentVersion()}.
+ * <p>
+ * Widths are registered using {@link ChatTextUtils#setCharacterWidth(int, int, int)},
+ * {@link ChatTextUtils#setCharacterWidths(FontMetrics)} or {@link FontMetrics#register()}.
+ *
+ * @since 1.0.0
+ */
+public final class FontWidthRegistry {
+
+    // Widths of the BMP are split into pages, so a registration only copies the pages it modifies.
+    private static final int PAGE_SHIFT = 8;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final int PAGE_COUNT = (Character.MAX_VALUE + 1) >> PAGE_SHIFT;
+
+    static final int DEFAULT_WIDTH = 5;
+    static final int SPACE_WIDTH = 3;
+    static final int MINIMUM_WIDTH = Byte.MIN_VALUE;
+    static final int MAXIMUM_WIDTH = Byte.MAX_VALUE;
+
+    private static volatile FontWidthRegistry current = createDefault();
+
+    private final byte[][] normal_widths;
+    private final byte[][] bold_widths;
+    private final FontMetrics supplementary_widths;
+    private final long version;
+
+    private FontWidthRegistry(@NotNull byte[][] normalWidths, @NotNull byte[][] boldWidths, @NotNull FontMetrics supplementaryWidths, long version) {
+        this.normal_widths = normalWidths;
+        this.bold_widths = boldWidths;
+        this.supplementary_widths = supplementaryWidths;
+        this.version = version;
+    }
+
+    /**
+     * Gets the snapshot of the currently known glyph widths.
+     *
+     * @return The current snapshot
+     */
+    @NotNull
+    public static FontWidthRegistry getCurrent() {
+        return current;
+    }
+
+    /**
+     * Gets the version of the currently known glyph widths. The version is increased every time widths are registered.
+     *
+     * @return The current version
+     */
+    public static long getCurrentVersion() {
+        return current.version;
+    }
+
+    /**
+     * Gets the version of this snapshot, the default widths having the version 0.
+     *
+     * @return The version of this snapshot
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the width of a character.
+     *
+     * @param character The character to get its width.
+     * @param bold      True if the character is bold, otherwise false.
+     *
+     * @return The width of the character, which is negative for glyphs moving the following ones backwards
+     */
+    public int getWidth(char character, boolean bold) {
+        byte[][] widths = bold ? bold_widths : normal_widths;
+        return widths[character >>> PAGE_SHIFT][character & PAGE_MASK];
+    }
+
+    /**
+     * Gets the width of a code point, including supplementary code points.
+     *
+     * @param codePoint The code point to get its width.
+     * @param bold      True if the code point is bold, otherwise false.
+     *
+     * @return The width of the code point
+     */
+    public int getWidth(int codePoint, boolean bold) {
+        if (codePoint >= 0 && codePoint <= Character.MAX_VALUE)
+            return getWidth((char) codePoint, bold);
+
+        int result = supplementary_widths.getWidth(codePoint, bold);
+        return result != FontMetrics.UNKNOWN_WIDTH ? result : DEFAULT_WIDTH;
+    }
+
+    /**
+     * Publishes a new snapshot overriding the widths of the current one with the widths of the given font metrics. The
+     * width of the space is never overridden.
+     *
+     * @param metrics The font metrics to register.
+     */
+    static synchronized void register(@NotNull FontMetrics metrics) {
+        FontWidthRegistry previous = current;
+
+        byte[][] normal_widths = previous.normal_widths.clone();
+        byte[][] bold_widths = previous.bold_widths.clone();
+
+        int[] code_points = metrics.code_points;
+        int copied_page = -1;
+        int supplementary = code_points.length;
+
+        for (int i = 0; i < code_points.length; i++) {
+            int code_point = code_points[i];
+
+            // Code points are sorted, so the remaining ones are all supplementary.
+            if (code_point > Character.MAX_VALUE) {
+                supplementary = i;
+                break;
+            }
+
+            if (code_point == ' ')
+                continue;
+
+            int page = code_point >>> PAGE_SHIFT;
+
+            if (page != copied_page) {
+                normal_widths[page] = normal_widths[page].clone();
+                bold_widths[page] = bold_widths[page].clone();
+                copied_page = page;
+            }
+
+            normal_widths[page][code_point & PAGE_MASK] = metrics.normal_widths[i];
+            bold_widths[page][code_point & PAGE_MASK] = metrics.bold_widths[i];
+        }
+
+        FontMetrics supplementary_widths = previous.supplementary_widths;
+        if (supplementary < code_points.length)
+            supplementary_widths = merge(supplementary_widths, metrics, supplementary);
+
+        current = new FontWidthRegistry(normal_widths, bold_widths, supplementary_widths, previous.version + 1);
+    }
+
+    /**
+     * Merges the supplementary code points of the given font metrics into the given supplementary widths, the added
+     * widths overriding the current ones.
+     *
+     * @param current The current supplementary widths.
+     * @param added   The font metrics to add.
+     * @param start   The index of the first supplementary code point of the added metrics.
+     *
+     * @return The merged supplementary widths
+     */
+    @NotNull
+    private static FontMetrics merge(@NotNull FontMetrics current, @NotNull FontMetrics added, int start) {
+        int capacity = current.code_points.length + added.code_points.length - start;
+
+        int[] code_points = new int[capacity];
+        byte[] normal_widths = new byte[capacity];
+        byte[] bold_widths = new byte[capacity];
+
+        int i = 0, j = start, size = 0;
+
+        while (i < current.code_points.length || j < added.code_points.length) {
+            int left = i < current.code_points.length ? current.code_points[i] : Integer.MAX_VALUE;
+            int right = j < added.code_points.length ? added.code_points[j] : Integer.MAX_VALUE;
+
+            if (right <= left) {
+                code_points[size] = right;
+                normal_widths[size] = added.normal_widths[j];
+                bold_widths[size] = added.bold_widths[j++];
+
+                if (left == right)
+                    i++;
+            } else {
+                code_points[size] = left;
+                normal_widths[size] = current.normal_widths[i];
+                bold_widths[size] = current.bold_widths[i++];
+            }
+
+            size++;
+        }
+
+        return new FontMetrics(Arrays.copyOf(code_points, size), Arrays.copyOf(normal_widths, size), Arrays.copyOf(bold_widths, size));
+    }
+
+    /**
+     * Creates the snapshot of the default widths, as known by {@link MinecraftFont}.
+     *
+     * @return The default snapshot
+     */
+    @NotNull
+    private static FontWidthRegistry createDefault() {
+        byte[][] normal_widths = new byte[PAGE_COUNT][PAGE_SIZE];
+        byte[][] bold_widths = new byte[PAGE_COUNT][PAGE_SIZE];
+
+        for (int i = 0; i <= Character.MAX_VALUE; i++) {
+            MapFont.CharacterSprite sprite = MinecraftFont.Font.getChar((char) i);
+            int width = sprite != null ? Math.min(sprite.getWidth(), MAXIMUM_WIDTH - 1) : DEFAULT_WIDTH;
+
+            normal_widths[i >>> PAGE_SHIFT][i & PAGE_MASK] = (byte) width;
+            bold_widths[i >>> PAGE_SHIFT][i & PAGE_MASK] = (byte) (sprite != null ? width + 1 : width);
+        }
+
+        normal_widths[0][' '] = SPACE_WIDTH;
+        bold_widths[0][' '] = SPACE_WIDTH;
+
+        return new FontWidthRegistry(normal_widths, bold_widths, new FontMetrics(new int[0], new byte[0], new byte[0]), 0);
+    }
+
+    @Override
+    public String toString() {
+        return "FontWidthRegistry{" +
+                "version=" + version +
+                ", supplementary=" + supplementary_widths.size() +
+                '}';
+    }
+
+}
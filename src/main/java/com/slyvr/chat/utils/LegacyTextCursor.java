@@ -0,0 +1,322 @@
+package com.slyvr.chat.utils;
+
+import org.bukkit.ChatColor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A reusable cursor walking over a text with legacy formatting codes ({@link ChatColor#COLOR_CHAR}).
+ * <p>
+ * The cursor walks the text only once, skipping formatting codes while keeping track of the active color and formats,
+ * and measures every visible character it passes by. Visible characters can be consumed one at a time using
+ * {@link #next()}, or grouped into runs sharing the same formatting using {@link #nextRun()}.
+ * <p>
+ * Surrogate pairs are measured as a single code point, using the {@link FontWidthRegistry} snapshot current when the
+ * cursor was last reset. A cursor is not thread-safe, but it can be reused for another text using
+ * {@link #reset(CharSequence)}.
+ *
+ * @since 1.0.0
+ */
+public final class LegacyTextCursor {
+
+    private FontWidthRegistry widths;
+    private CharSequence text;
+    private int length;
+    private int index;
+
+    private int position;
+    private int end;
+    private int code_point;
+    private int width;
+
+    private int run_start;
+    private int run_end;
+    private int run_width;
+
+    private int color_start;
+    private int color_end;
+    private int hex_digits;
+    private int formats;
+
+    /**
+     * Constructs a new cursor positioned before the first character of the given text.
+     *
+     * @param text The text to walk over.
+     */
+    public LegacyTextCursor(@NotNull CharSequence text) {
+        this.reset(text);
+    }
+
+    /**
+     * Resets this cursor to walk over the given text from its beginning, clearing all the tracked formatting.
+     *
+     * @param text The text to walk over.
+     *
+     * @return This cursor's instance
+     */
+    @NotNull
+    public LegacyTextCursor reset(@NotNull CharSequence text) {
+        this.widths = FontWidthRegistry.getCurrent();
+        this.text = text;
+        this.length = text.length();
+        this.index = 0;
+
+        this.position = -1;
+        this.end = 0;
+        this.code_point = 0;
+        this.width = 0;
+
+        this.run_start = 0;
+        this.run_end = 0;
+        this.run_width = 0;
+
+        this.color_start = -1;
+        this.color_end = -1;
+        this.hex_digits = 0;
+        this.formats = 0;
+        return this;
+    }
+
+    /**
+     * Moves this cursor to the next visible character, applying all the formatting codes found on the way.
+     *
+     * @return True if a visible character was found, otherwise false if the end of the text was reached
+     */
+    public boolean next() {
+        while (index < length) {
+            char current = text.charAt(index++);
+
+            if (current == ChatColor.COLOR_CHAR) {
+                if (index < length)
+                    this.applyCode(text.charAt(index++), index - 2);
+
+                continue;
+            }
+
+            this.position = index - 1;
+            this.code_point = current;
+
+            if (Character.isHighSurrogate(current) && index < length && Character.isLowSurrogate(text.charAt(index)))
+                this.code_point = Character.toCodePoint(current, text.charAt(index++));
+
+            this.end = index;
+            this.width = widths.getWidth(code_point, isBold());
+
+            // Every character except spaces is followed by a one pixel gap, unless it ends the text.
+            if (code_point != ' ' && end != length)
+                this.width++;
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Moves this cursor over the next run of visible characters sharing the same formatting.
+     *
+     * @return True if a run was found, otherwise false if the end of the text was reached
+     */
+    public boolean nextRun() {
+        if (!next())
+            return false;
+
+        this.run_start = position;
+        this.run_width = width;
+
+        while (index < length && text.charAt(index) != ChatColor.COLOR_CHAR) {
+            this.next();
+            this.run_width += width;
+        }
+
+        this.run_end = index;
+        return true;
+    }
+
+    /**
+     * Moves this cursor to the end of the text, and gets the width of all the visible characters it passed by, as if the
+     * text was followed by more text.
+     * <p>
+     * Unlike {@link ChatTextUtils#getTextWidth(String)}, the gap following the last character of the text is included,
+     * so the widths of consecutive texts can be summed up.
+     *
+     * @return The width of the visible characters passed by, including the gap following the last one
+     * @see #hasTrailingGap()
+     */
+    public int measureRemaining() {
+        int result = 0;
+
+        while (nextRun())
+            result += run_width;
+
+        return hasTrailingGap() ? result + 1 : result;
+    }
+
+    /**
+     * Checks if the last character of the text is a visible character followed by a gap once more text is appended.
+     * <p>
+     * The result is only meaningful once this cursor reached the end of the text.
+     *
+     * @return True if the text ends with a visible character followed by a gap, otherwise false
+     */
+    public boolean hasTrailingGap() {
+        return length > 0 && end == length && code_point != ' ';
+    }
+
+    /**
+     * Gets the index of the current visible character.
+     *
+     * @return The index of the current visible character, or -1 if the cursor didn't move yet
+     */
+    public int getIndex() {
+        return position;
+    }
+
+    /**
+     * Gets the current visible character, or the high surrogate of the current code point if it is supplementary.
+     *
+     * @return The current visible character
+     */
+    public char getCharacter() {
+        return position != -1 ? text.charAt(position) : 0;
+    }
+
+    /**
+     * Gets the code point of the current visible character.
+     *
+     * @return The code point of the current visible character
+     */
+    public int getCodePoint() {
+        return code_point;
+    }
+
+    /**
+     * Gets the width of the current visible character, including the gap following it.
+     *
+     * @return The width of the current visible character
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the index of the first character of the current run.
+     *
+     * @return The index of the first character of the current run
+     */
+    public int getRunStart() {
+        return run_start;
+    }
+
+    /**
+     * Gets the index following the last character of the current run.
+     *
+     * @return The index following the last character of the current run
+     */
+    public int getRunEnd() {
+        return run_end;
+    }
+
+    /**
+     * Gets the width of the current run.
+     *
+     * @return The width of the current run
+     */
+    public int getRunWidth() {
+        return run_width;
+    }
+
+    /**
+     * Gets the active formats as a bitmask, where the bit {@code n} is set if the format code {@code 'k' + n} is active.
+     *
+     * @return The active formats bitmask
+     */
+    public int getFormats() {
+        return formats;
+    }
+
+    /**
+     * Checks if the bold format is active.
+     *
+     * @return True if the bold format is active, otherwise false
+     */
+    public boolean isBold() {
+        return (formats & getFormatBit('l')) != 0;
+    }
+
+    /**
+     * Gets the formatting codes needed to restore the active color and formats.
+     *
+     * @return The formatting codes of the active color and formats, or an empty string if none
+     */
+    @NotNull
+    public String getFormatting() {
+        if (color_start == -1 && formats == 0)
+            return "";
+
+        return appendFormatting(new StringBuilder(16)).toString();
+    }
+
+    /**
+     * Appends the formatting codes needed to restore the active color and formats to the given builder.
+     *
+     * @param builder The builder to append to.
+     *
+     * @return The given builder
+     */
+    @NotNull
+    public StringBuilder appendFormatting(@NotNull StringBuilder builder) {
+        if (color_start != -1)
+            builder.append(text, color_start, color_end);
+
+        for (int i = 0; i < 5; i++) {
+            if ((formats & (1 << i)) != 0)
+                builder.append(ChatColor.COLOR_CHAR).append((char) ('k' + i));
+        }
+
+        return builder;
+    }
+
+    /**
+     * Applies the given formatting code to the tracked formatting.
+     *
+     * @param code  The formatting code following the color character.
+     * @param start The index of the color character.
+     */
+    private void applyCode(char code, int start) {
+        code = Character.toLowerCase(code);
+
+        if ((code >= '0' && code <= '9') || (code >= 'a' && code <= 'f')) {
+            // Hex colors are written as §x followed by six digit codes, which all belong to the same color.
+            if (hex_digits > 0) {
+                this.hex_digits--;
+                this.color_end = start + 2;
+                return;
+            }
+
+            this.color_start = start;
+            this.color_end = start + 2;
+            this.formats = 0;
+            return;
+        }
+
+        this.hex_digits = 0;
+
+        if (code == 'x') {
+            this.color_start = start;
+            this.color_end = start + 2;
+            this.hex_digits = 6;
+            this.formats = 0;
+        } else if (code >= 'k' && code <= 'o') {
+            this.formats |= getFormatBit(code);
+        } else if (code == 'r') {
+            this.color_start = -1;
+            this.color_end = -1;
+            this.formats = 0;
+        }
+    }
+
+    private static int getFormatBit(char code) {
+        return 1 << (code - 'k');
+    }
+
+}
@@ -0,0 +1,285 @@
+package com.slyvr.chat.utils;
+
+import com.google.common.base.Preconditions;
+import com.slyvr.chat.metrics.ChatMetric;
+import com.slyvr.chat.style.TextAlignment;
+import com.slyvr.chat.style.TextWrap;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A bounded cache of wrapped and aligned lines, evicting the least recently used layouts first.
+ * <p>
+ * Layouts are keyed by the formatted text, the alignment or number of initial spaces, the wrap mode and the chat's
+ * width, so repeatedly laying out the same text skips the pixel-width pass completely. The returned arrays are shared
+ * between all the callers and must not be modified.
+ * <p>
+ * Layouts are also keyed by the {@link FontWidthRegistry#getVersion() version} of the glyph widths they were computed
+ * with, so registering new widths never returns outdated layouts. The cache is cleared the first time it is used after
+ * the widths changed.
+ *
+ * @since 1.0.0
+ */
+public final class TextLayoutCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    private static final TextLayoutCache SHARED = new TextLayoutCache(DEFAULT_MAXIMUM_SIZE);
+
+    private final BoundedCache<LayoutKey, String[]> cache;
+    private volatile long version;
+
+    /**
+     * Constructs a new layout cache.
+     *
+     * @param maximumSize The maximum number of layouts to keep.
+     *
+     * @throws IllegalArgumentException If the maximum size is not positive.
+     */
+    public TextLayoutCache(int maximumSize) {
+        Preconditions.checkArgument(maximumSize > 0, "Maximum size must be positive!");
+
+        this.cache = new BoundedCache<>(maximumSize, ChatMetric.LAYOUT_CACHE_HITS, ChatMetric.LAYOUT_CACHE_MISSES);
+    }
+
+    /**
+     * Gets the layout cache shared by all the text-sections.
+     *
+     * @return The shared layout cache
+     */
+    @NotNull
+    public static TextLayoutCache getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Gets the lines of the given text aligned according to the given alignment type.
+     *
+     * @param text      The text to align.
+     * @param alignment The alignment to apply.
+     *
+     * @return The aligned lines, which must not be modified
+     *
+     * @see ChatTextUtils#align(String, int)
+     */
+    @NotNull
+    public String[] align(@NotNull String text, @NotNull TextAlignment alignment) {
+        return align(text, alignment, ChatTextUtils.DEFAULT_CHAT_WIDTH);
+    }
+
+    /**
+     * Gets the lines of the given text aligned according to the given alignment type, in a chat of the given width.
+     *
+     * @param text      The text to align.
+     * @param alignment The alignment to apply.
+     * @param chatWidth The width of the chat.
+     *
+     * @return The aligned lines, which must not be modified
+     *
+     * @see ChatTextUtils#align(String, int, int)
+     */
+    @NotNull
+    public String[] align(@NotNull String text, @NotNull TextAlignment alignment, int chatWidth) {
+        return align(text, alignment, chatWidth, TextWrap.CHARACTER);
+    }
+
+    /**
+     * Gets the lines of the given text aligned according to the given alignment type, in a chat of the given width,
+     * broken according to the given wrap mode.
+     *
+     * @param text      The text to align.
+     * @param alignment The alignment to apply.
+     * @param chatWidth The width of the chat.
+     * @param wrap      The way lines are broken.
+     *
+     * @return The aligned lines, which must not be modified
+     *
+     * @see ChatTextUtils#align(String, int, int, TextWrap)
+     */
+    @NotNull
+    public String[] align(@NotNull String text, @NotNull TextAlignment alignment, int chatWidth, @NotNull TextWrap wrap) {
+        Preconditions.checkNotNull(wrap, "Wrap mode cannot be null!");
+
+        switch (alignment) {
+            case CENTER:
+                return cache.get(new LayoutKey(text, LayoutKey.CENTER, chatWidth, wrap, checkVersion()), TextLayoutCache::layout);
+            case RIGHT:
+                return cache.get(new LayoutKey(text, LayoutKey.RIGHT, chatWidth, wrap, checkVersion()), TextLayoutCache::layout);
+            default:
+                return new String[]{text};
+        }
+    }
+
+    /**
+     * Gets the lines of the given text split with the given number of initial spaces.
+     *
+     * @param text   The text to split.
+     * @param spaces The number of initial spaces.
+     *
+     * @return The split lines, which must not be modified
+     *
+     * @see ChatTextUtils#split(String, int)
+     */
+    @NotNull
+    public String[] split(@NotNull String text, int spaces) {
+        return split(text, spaces, ChatTextUtils.DEFAULT_CHAT_WIDTH);
+    }
+
+    /**
+     * Gets the lines of the given text split with the given number of initial spaces, in a chat of the given width.
+     *
+     * @param text      The text to split.
+     * @param spaces    The number of initial spaces.
+     * @param chatWidth The width of the chat.
+     *
+     * @return The split lines, which must not be modified
+     *
+     * @see ChatTextUtils#split(String, int, int)
+     */
+    @NotNull
+    public String[] split(@NotNull String text, int spaces, int chatWidth) {
+        return split(text, spaces, chatWidth, TextWrap.CHARACTER);
+    }
+
+    /**
+     * Gets the lines of the given text split with the given number of initial spaces, in a chat of the given width,
+     * broken according to the given wrap mode.
+     *
+     * @param text      The text to split.
+     * @param spaces    The number of initial spaces.
+     * @param chatWidth The width of the chat.
+     * @param wrap      The way lines are broken.
+     *
+     * @return The split lines, which must not be modified
+     *
+     * @see ChatTextUtils#split(String, int, int, TextWrap)
+     */
+    @NotNull
+    public String[] split(@NotNull String text, int spaces, int chatWidth, @NotNull TextWrap wrap) {
+        Preconditions.checkNotNull(wrap, "Wrap mode cannot be null!");
+
+        return cache.get(new LayoutKey(text, spaces, chatWidth, wrap, checkVersion()), TextLayoutCache::layout);
+    }
+
+    /**
+     * Gets the number of layouts found in this cache.
+     *
+     * @return The number of cache hits
+     */
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    /**
+     * Gets the number of layouts that had to be computed.
+     *
+     * @return The number of cache misses
+     */
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    /**
+     * Gets the ratio of layouts found in this cache over all the requested layouts.
+     *
+     * @return The hit rate between 0 and 1, or 0 if no layout was requested yet
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long total = hits + getMisses();
+
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Gets the number of layouts currently cached.
+     *
+     * @return The number of layouts currently cached
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Gets the maximum number of layouts this cache keeps.
+     *
+     * @return The maximum number of layouts this cache keeps
+     */
+    public int getMaximumSize() {
+        return cache.getMaximumSize();
+    }
+
+    /**
+     * Removes all the cached layouts.
+     */
+    public void clear() {
+        this.cache.clear();
+    }
+
+    /**
+     * Clears this cache if the glyph widths changed since it was last used.
+     *
+     * @return The current version of the glyph widths
+     */
+    private long checkVersion() {
+        long current = FontWidthRegistry.getCurrentVersion();
+
+        if (current != version) {
+            this.version = current;
+            this.cache.clear();
+        }
+
+        return current;
+    }
+
+    @NotNull
+    private static String[] layout(@NotNull LayoutKey key) {
+        switch (key.mode) {
+            case LayoutKey.CENTER:
+                return ChatTextUtils.align(key.text, 6, key.width, key.wrap).toArray(new String[0]);
+            case LayoutKey.RIGHT:
+                return ChatTextUtils.align(key.text, 3, key.width, key.wrap).toArray(new String[0]);
+            default:
+                return ChatTextUtils.split(key.text, key.mode, key.width, key.wrap).toArray(new String[0]);
+        }
+    }
+
+    private static final class LayoutKey {
+
+        // Non-negative modes are a number of initial spaces.
+        private static final int CENTER = -1;
+        private static final int RIGHT = -2;
+
+        private final String text;
+        private final int mode;
+        private final int width;
+        private final TextWrap wrap;
+        private final long version;
+
+        private LayoutKey(@NotNull String text, int mode, int width, @NotNull TextWrap wrap, long version) {
+            this.text = text;
+            this.mode = mode;
+            this.width = width;
+            this.wrap = wrap;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+
+            if (obj == null || getClass() != obj.getClass())
+                return false;
+
+            LayoutKey other = (LayoutKey) obj;
+            return mode == other.mode && width == other.width && wrap == other.wrap && version == other.version && text.equals(other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * (31 * (31 * text.hashCode() + mode) + width) + wrap.hashCode()) + Long.hashCode(version);
+        }
+
+    }
+
+}
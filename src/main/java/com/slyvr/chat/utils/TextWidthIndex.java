@@ -0,0 +1,259 @@
+package com.slyvr.chat.utils;
+
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Represents the pixel widths of all the visible characters of a text with formatting codes, measured once.
+ * <p>
+ * The widths are stored as prefix sums, so the width of any range of visible characters is known in constant time, and
+ * the longest range fitting in a given width is found using a binary search. Visible characters are designated by their
+ * ordinal, the first visible character of the text having the ordinal 0, and a supplementary code point counting as a
+ * single character.
+ * <p>
+ * Like {@link LegacyTextCursor}, every character except spaces is followed by a one pixel gap, unless it ends the text.
+ * Glyphs with a negative width, such as negative spaces, make the prefix sums unsorted, in which case breaks are found
+ * by walking the characters instead.
+ *
+ * @since 1.0.0
+ */
+public final class TextWidthIndex {
+
+    private final CharSequence text;
+    private final int size;
+
+    // Width of the visible characters before every ordinal, and index of every visible character in the text.
+    private final int[] prefix_widths;
+    private final int[] indexes;
+    private final boolean sorted;
+
+    // Ordinals of the spaces, and the formatting active at the start of every run of characters.
+    private final int[] spaces;
+    private final int[] run_starts;
+    private final String[] run_formatting;
+
+    /**
+     * Measures all the visible characters of the given text.
+     *
+     * @param text The text to measure.
+     *
+     * @throws NullPointerException If the given text is null.
+     */
+    public TextWidthIndex(@NotNull CharSequence text) {
+        Preconditions.checkNotNull(text, "Text to measure cannot be null!");
+
+        int length = text.length();
+
+        int[] prefix_widths = new int[length + 1];
+        int[] indexes = new int[length + 1];
+        int[] spaces = new int[8];
+        int[] run_starts = new int[4];
+        String[] run_formatting = new String[4];
+
+        LegacyTextCursor cursor = new LegacyTextCursor(text);
+        int size = 0, space_count = 0, run_count = 0, previous_end = 0;
+        boolean sorted = true;
+
+        while (cursor.next()) {
+            int index = cursor.getIndex();
+
+            // Formatting codes were skipped since the previous character, so a new run starts.
+            if (index != previous_end || size == 0) {
+                if (run_count == run_starts.length) {
+                    run_starts = Arrays.copyOf(run_starts, run_count * 2);
+                    run_formatting = Arrays.copyOf(run_formatting, run_count * 2);
+                }
+
+                run_starts[run_count] = size;
+                run_formatting[run_count++] = cursor.getFormatting();
+            }
+
+            if (cursor.getCodePoint() == ' ') {
+                if (space_count == spaces.length)
+                    spaces = Arrays.copyOf(spaces, space_count * 2);
+
+                spaces[space_count++] = size;
+            }
+
+            if (cursor.getWidth() < 0)
+                sorted = false;
+
+            indexes[size] = index;
+            prefix_widths[size + 1] = prefix_widths[size] + cursor.getWidth();
+            previous_end = index + Character.charCount(cursor.getCodePoint());
+            size++;
+        }
+
+        indexes[size] = length;
+
+        this.text = text;
+        this.size = size;
+        this.prefix_widths = prefix_widths;
+        this.indexes = indexes;
+        this.sorted = sorted;
+        this.spaces = Arrays.copyOf(spaces, space_count);
+        this.run_starts = Arrays.copyOf(run_starts, run_count);
+        this.run_formatting = Arrays.copyOf(run_formatting, run_count);
+    }
+
+    /**
+     * Gets the measured text.
+     *
+     * @return The measured text
+     */
+    @NotNull
+    public CharSequence getText() {
+        return text;
+    }
+
+    /**
+     * Gets the number of visible characters of the text.
+     *
+     * @return The number of visible characters
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the width of the whole text.
+     *
+     * @return The width of the text
+     * @see ChatTextUtils#getTextWidth(String)
+     */
+    public int getWidth() {
+        return prefix_widths[size];
+    }
+
+    /**
+     * Gets the width of the visible characters between the given ordinals, including the gap following the last one
+     * unless it ends the text.
+     *
+     * @param from The ordinal of the first character, inclusive.
+     * @param to   The ordinal of the last character, exclusive.
+     *
+     * @return The width of the characters
+     *
+     * @throws IndexOutOfBoundsException If the given range is invalid.
+     */
+    public int getWidth(int from, int to) {
+        this.checkRange(from, to);
+
+        return prefix_widths[to] - prefix_widths[from];
+    }
+
+    /**
+     * Gets the index in the text of the visible character of the given ordinal.
+     *
+     * @param ordinal The ordinal of the character.
+     *
+     * @return The index of the character, or the length of the text if the ordinal is equal to the size
+     *
+     * @throws IndexOutOfBoundsException If the given ordinal is invalid.
+     */
+    public int getIndex(int ordinal) {
+        this.checkRange(ordinal, ordinal);
+
+        return indexes[ordinal];
+    }
+
+    /**
+     * Checks if the visible character of the given ordinal is a space.
+     *
+     * @param ordinal The ordinal of the character.
+     *
+     * @return True if the character is a space, otherwise false
+     */
+    public boolean isSpace(int ordinal) {
+        return Arrays.binarySearch(spaces, ordinal) >= 0;
+    }
+
+    /**
+     * Gets the formatting codes active at the visible character of the given ordinal.
+     *
+     * @param ordinal The ordinal of the character.
+     *
+     * @return The formatting codes of the active color and formats, or an empty string if none
+     *
+     * @throws IndexOutOfBoundsException If the given ordinal is invalid.
+     * @see LegacyTextCursor#getFormatting()
+     */
+    @NotNull
+    public String getFormatting(int ordinal) {
+        if (ordinal < 0 || ordinal >= size)
+            throw new IndexOutOfBoundsException("The ordinal must be between 0 and " + (size - 1) + '!');
+
+        int run = Arrays.binarySearch(run_starts, ordinal);
+        return run_formatting[run >= 0 ? run : -run - 2];
+    }
+
+    /**
+     * Finds the first character starting from the given ordinal which doesn't fit in the given width along with the
+     * characters preceding it.
+     *
+     * @param from     The ordinal of the first character.
+     * @param maxWidth The maximum width of the characters.
+     *
+     * @return The ordinal following the last fitting character, equal to the given ordinal if none fits
+     *
+     * @throws IndexOutOfBoundsException If the given ordinal is invalid.
+     */
+    public int findBreak(int from, int maxWidth) {
+        this.checkRange(from, from);
+
+        long limit = (long) prefix_widths[from] + maxWidth;
+        int low = from, high = size;
+
+        // A negative width can bring the characters following an overflowing one back under the limit.
+        if (!sorted) {
+            while (low < high && prefix_widths[low + 1] <= limit)
+                low++;
+
+            return low;
+        }
+
+        // Without negative widths, the prefix sums are sorted.
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+
+            if (prefix_widths[middle] <= limit)
+                low = middle;
+            else
+                high = middle - 1;
+        }
+
+        return low;
+    }
+
+    /**
+     * Finds the last space between the given ordinals.
+     *
+     * @param from The ordinal of the first character, inclusive.
+     * @param to   The ordinal of the last character, inclusive.
+     *
+     * @return The ordinal of the last space, or -1 if none
+     */
+    public int findLastSpace(int from, int to) {
+        int index = Arrays.binarySearch(spaces, to);
+        if (index < 0)
+            index = -index - 2;
+
+        return index >= 0 && spaces[index] >= from ? spaces[index] : -1;
+    }
+
+    private void checkRange(int from, int to) {
+        if (from < 0 || to > size || from > to)
+            throw new IndexOutOfBoundsException("Invalid range " + from + " to " + to + " of " + size + " characters!");
+    }
+
+    @Override
+    public String toString() {
+        return "TextWidthIndex{" +
+                "characters=" + size +
+                ", width=" + getWidth() +
+                '}';
+    }
+
+}
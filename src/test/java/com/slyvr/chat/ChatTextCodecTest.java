@@ -0,0 +1,304 @@
+package com.slyvr.chat;
+
+import com.slyvr.chat.style.TextAlignment;
+import com.slyvr.chat.style.TextColor;
+import com.slyvr.chat.style.TextStyle;
+import com.slyvr.chat.style.TextWrap;
+import net.md_5.bungee.api.chat.ClickEvent;
+import net.md_5.bungee.api.chat.HoverEvent;
+import net.md_5.bungee.api.chat.TextComponent;
+import net.md_5.bungee.api.chat.hover.content.Text;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Round-trips chat-texts, text-builders and text-sections through {@link ChatTextCodec}, using both a
+ * {@link DataOutput}/{@link DataInput} and a {@link ByteBuffer}.
+ *
+ * @since 1.0.0
+ */
+class ChatTextCodecTest {
+
+    private static final int BUFFER_SIZE = 4096;
+
+    // Offsets in an encoded simple chat-text: version, type, flags, color, styles, string marker, string length.
+    private static final int COLOR_OFFSET = 3;
+    private static final int STRING_LENGTH_OFFSET = 6;
+
+    @Test
+    void simpleTextRoundTrips() throws IOException {
+        ChatText text = new ChatText("Hello", TextColor.GOLD, TextStyle.BOLD, TextStyle.ITALIC)
+                .setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/hello"))
+                .setHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, new Text("Says hello")));
+
+        assertTextRoundTrips(text);
+    }
+
+    @Test
+    void uncoloredTextRoundTrips() throws IOException {
+        assertTextRoundTrips(new ChatText("Plain text"));
+        assertTextRoundTrips(new ChatText(""));
+    }
+
+    @Test
+    void complexTextRoundTripsAsJson() throws IOException {
+        TextComponent component = new TextComponent("Hello");
+        component.setInsertion("hello");
+        component.addExtra(new TextComponent(" world"));
+
+        ChatText text = new ChatText(component);
+        assertTrue(text.isComplex());
+
+        ChatText stream = throughStream(text, ChatTextCodec::write, ChatTextCodec::readText);
+        ChatText buffer = throughBuffer(text, ChatTextCodec::write, ChatTextCodec::readText);
+
+        for (ChatText result : Arrays.asList(stream, buffer)) {
+            assertTrue(result.isComplex());
+            assertEquals(text, result);
+            assertEquals("hello", result.toTextComponent().getInsertion());
+        }
+    }
+
+    @Test
+    void builderRoundTrips() throws IOException {
+        ChatTextBuilder builder = new ChatTextBuilder(
+                new ChatText("[", TextColor.DARK_GRAY),
+                new ChatText("Server", TextColor.GOLD, TextStyle.BOLD),
+                new ChatText("] ", TextColor.DARK_GRAY),
+                new ChatText("Welcome!"));
+
+        assertEquals(builder.getParts(), throughStream(builder, ChatTextCodec::write, ChatTextCodec::readBuilder).getParts());
+        assertEquals(builder.getParts(), throughBuffer(builder, ChatTextCodec::write, ChatTextCodec::readBuilder).getParts());
+    }
+
+    @Test
+    void equalEventsAreDeduplicated() throws IOException {
+        HoverEvent hover = new HoverEvent(HoverEvent.Action.SHOW_TEXT, new Text("Teleports you to spawn"));
+
+        ChatTextBuilder builder = new ChatTextBuilder(
+                new ChatText("Spawn", TextColor.GOLD).setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/spawn")).setHoverEvent(hover),
+                new ChatText(" (click)", TextColor.GRAY).setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/spawn")).setHoverEvent(hover),
+                new ChatText(" or ", TextColor.GRAY),
+                new ChatText("Home", TextColor.GOLD).setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/home")));
+
+        ChatTextBuilder stream = throughStream(builder, ChatTextCodec::write, ChatTextCodec::readBuilder);
+        ChatTextBuilder buffer = throughBuffer(builder, ChatTextCodec::write, ChatTextCodec::readBuilder);
+
+        for (ChatTextBuilder result : Arrays.asList(stream, buffer)) {
+            assertEquals(builder.getParts(), result.getParts());
+
+            // Deduplicated events are decoded once, then shared by every part referencing them.
+            assertSame(result.getText(0).getClickEvent(), result.getText(1).getClickEvent());
+            assertSame(result.getText(0).getHoverEvent(), result.getText(1).getHoverEvent());
+            assertNull(result.getText(2).getClickEvent());
+            assertEquals("/home", result.getText(3).getClickEvent().getValue());
+        }
+    }
+
+    @Test
+    void repeatedStringsAreReferenced() throws IOException {
+        ChatTextBuilder repeated = new ChatTextBuilder(new ChatText("Hello world"), new ChatText("Hello world"));
+        ChatTextBuilder distinct = new ChatTextBuilder(new ChatText("Hello world"), new ChatText("Hello earth"));
+
+        byte[] repeated_bytes = toBytes(output -> ChatTextCodec.write(repeated, output));
+        byte[] distinct_bytes = toBytes(output -> ChatTextCodec.write(distinct, output));
+
+        // The second string is replaced by a single byte reference instead of its marker, length and content.
+        assertEquals(distinct_bytes.length - "Hello earth".length() - 1, repeated_bytes.length);
+        assertEquals(repeated.getParts(), ChatTextCodec.readBuilder(ByteBuffer.wrap(repeated_bytes)).getParts());
+    }
+
+    @Test
+    void sectionRoundTrips() throws IOException {
+        ChatTextSection section = new ChatTextSection()
+                .append("Rules", TextAlignment.CENTER)
+                .append(new ChatText("1. Be nice", TextColor.YELLOW), 4)
+                .append(new ChatText("2. No griefing", TextColor.YELLOW, TextStyle.BOLD), 4)
+                .append("Rules", TextAlignment.RIGHT)
+                .append("Have fun!", TextAlignment.LEFT)
+                .append(new ChatText("Indented", TextColor.GRAY), 0);
+
+        assertSectionRoundTrips(section);
+    }
+
+    @Test
+    void sectionSettingsRoundTrip() throws IOException {
+        ChatTextSection section = new ChatTextSection()
+                .append("First line")
+                .append(new ChatText("Second line", TextColor.AQUA), 2)
+                .append("Third line", TextAlignment.CENTER)
+                .setPageSize(2)
+                .setNavigationCommand("/rules {page}")
+                .setNavigationLabels("<", "{page} / {pages}", ">")
+                .setCoalesced(true)
+                .setWrap(TextWrap.WORD);
+
+        assertSectionRoundTrips(section);
+    }
+
+    @Test
+    void defaultSectionSettingsRoundTrip() throws IOException {
+        ChatTextSection section = new ChatTextSection().append("Only line");
+
+        for (ChatTextSection result : assertSectionRoundTrips(section)) {
+            assertFalse(result.isCoalesced());
+            assertNull(result.getNavigationCommand());
+            assertEquals(TextWrap.CHARACTER, result.getWrap());
+            assertEquals(ChatTextSection.DEFAULT_PAGE_LABEL, result.getPageLabel());
+        }
+    }
+
+    @Test
+    void invalidColorIsRejected() throws IOException {
+        byte[] bytes = toBytes(output -> ChatTextCodec.write(new ChatText("Hello", TextColor.RED), output));
+        bytes[COLOR_OFFSET] = (byte) 200;
+
+        assertThrows(IOException.class, () -> ChatTextCodec.readText(ByteBuffer.wrap(bytes)));
+        assertThrows(IOException.class, () -> ChatTextCodec.readText(toInput(bytes)));
+    }
+
+    @Test
+    void oversizedStringIsRejected() throws IOException {
+        byte[] bytes = withStringLength(Integer.MAX_VALUE);
+
+        assertThrows(IOException.class, () -> ChatTextCodec.readText(ByteBuffer.wrap(bytes)));
+        assertThrows(IOException.class, () -> ChatTextCodec.readText(toInput(bytes)));
+    }
+
+    @Test
+    void truncatedStringIsRejected() throws IOException {
+        byte[] bytes = withStringLength(1000);
+
+        assertThrows(IOException.class, () -> ChatTextCodec.readText(ByteBuffer.wrap(bytes)));
+        assertThrows(IOException.class, () -> ChatTextCodec.readText(toInput(bytes)));
+    }
+
+    @Test
+    void unexpectedHeaderIsRejected() throws IOException {
+        byte[] bytes = toBytes(output -> ChatTextCodec.write(new ChatText("Hello"), output));
+
+        assertThrows(IOException.class, () -> ChatTextCodec.readBuilder(ByteBuffer.wrap(bytes)));
+        assertThrows(IOException.class, () -> ChatTextCodec.readSection(toInput(bytes)));
+
+        bytes[0] = (byte) (ChatTextCodec.VERSION + 1);
+        assertThrows(IOException.class, () -> ChatTextCodec.readText(ByteBuffer.wrap(bytes)));
+    }
+
+    private static void assertTextRoundTrips(ChatText text) throws IOException {
+        assertEquals(text, throughStream(text, ChatTextCodec::write, ChatTextCodec::readText));
+        assertEquals(text, throughBuffer(text, ChatTextCodec::write, ChatTextCodec::readText));
+    }
+
+    private static ChatTextSection[] assertSectionRoundTrips(ChatTextSection section) throws IOException {
+        ChatTextSection[] results = {
+                throughStream(section, ChatTextCodec::write, ChatTextCodec::readSection),
+                throughBuffer(section, ChatTextCodec::write, ChatTextCodec::readSection)
+        };
+
+        for (ChatTextSection result : results) {
+            assertEquals(section.getLineCount(), result.getLineCount());
+            assertEquals(section.getPageSize(), result.getPageSize());
+            assertEquals(section.isCoalesced(), result.isCoalesced());
+            assertEquals(section.getWrap(), result.getWrap());
+            assertEquals(section.getNavigationCommand(), result.getNavigationCommand());
+            assertEquals(section.getPreviousLabel(), result.getPreviousLabel());
+            assertEquals(section.getPageLabel(), result.getPageLabel());
+            assertEquals(section.getNextLabel(), result.getNextLabel());
+
+            for (int i = 0; i < section.getLineCount(); i++) {
+                assertEquals(section.getLineSource(i), result.getLineSource(i));
+                assertEquals(section.getLineAlignment(i), result.getLineAlignment(i));
+                assertEquals(section.getLineSpaces(i), result.getLineSpaces(i));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Encodes a simple chat-text, then replaces the length of its string by the given length.
+     */
+    private static byte[] withStringLength(int length) throws IOException {
+        byte[] bytes = toBytes(output -> ChatTextCodec.write(new ChatText("abc"), output));
+        assertEquals(3, bytes[STRING_LENGTH_OFFSET]);
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        result.write(bytes, 0, STRING_LENGTH_OFFSET);
+
+        while ((length & ~0x7F) != 0) {
+            result.write((length & 0x7F) | 0x80);
+            length >>>= 7;
+        }
+
+        result.write(length);
+        result.write(bytes, STRING_LENGTH_OFFSET + 1, bytes.length - STRING_LENGTH_OFFSET - 1);
+        return result.toByteArray();
+    }
+
+    private static <T> T throughStream(T value, Writer<T, DataOutput> writer, Reader<DataInput, T> reader) throws IOException {
+        byte[] bytes = toBytes(output -> writer.write(value, output));
+        DataInputStream input = toInput(bytes);
+
+        T result = reader.read(input);
+        assertEquals(-1, input.read(), "The whole input should have been read");
+        return result;
+    }
+
+    private static <T> T throughBuffer(T value, Writer<T, ByteBuffer> writer, Reader<ByteBuffer, T> reader) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        writer.write(value, buffer);
+        buffer.flip();
+
+        T result = reader.read(buffer);
+        assertFalse(buffer.hasRemaining(), "The whole buffer should have been read");
+        return result;
+    }
+
+    private static byte[] toBytes(Output output) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        output.write(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static DataInputStream toInput(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    @FunctionalInterface
+    private interface Writer<T, O> {
+
+        void write(T value, O output) throws IOException;
+
+    }
+
+    @FunctionalInterface
+    private interface Reader<I, T> {
+
+        T read(I input) throws IOException;
+
+    }
+
+    @FunctionalInterface
+    private interface Output {
+
+        void write(DataOutput output) throws IOException;
+
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.slyvr.chat.utils;
+
+import com.slyvr.chat.style.TextWrap;
+import org.bukkit.ChatColor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the lines broken by {@link ChatTextUtils}, comparing the measured and the streaming layouts.
+ *
+ * @since 1.0.0
+ */
+class ChatTextUtilsTest {
+
+    private static final char NEGATIVE_SPACE = '\uE001';
+
+    private static final String[] WORDS = {"a", "chat", "§cred", "§lbold", "wide", "Mmmmm", "i", "§r", "§6§ngold", "lllll"};
+
+    @Test
+    void trailingSpaceAtBreakIsDropped() {
+        String text = "Hello world ";
+        int width = ChatTextUtils.getTextWidth("Hello world") + 1;
+
+        List<String> expected = Collections.singletonList(ChatColor.RESET + "Hello world");
+
+        assertEquals(expected, ChatTextUtils.split(text, 0, width, TextWrap.WORD));
+        assertEquals(expected, stream(text, 0, width, TextWrap.WORD, false));
+
+        List<String> aligned = Collections.singletonList(pad("Hello world", 2, width));
+
+        assertEquals(aligned, ChatTextUtils.align(text, 2, width, TextWrap.WORD));
+        assertEquals(aligned, stream(text, 2, width, TextWrap.WORD, true));
+    }
+
+    @Test
+    void everyAlignedLineIsPadded() {
+        String text = "centered text that is long enough to wrap around";
+
+        List<String> expected = new ArrayList<>();
+        for (String line : ChatTextUtils.split(text, 0, 100, TextWrap.WORD))
+            expected.add(pad(line.substring(ChatColor.RESET.toString().length()), 2, 100));
+
+        assertTrue(expected.size() > 2);
+        assertEquals(expected, ChatTextUtils.align(text, 2, 100, TextWrap.WORD));
+        assertEquals(expected, stream(text, 2, 100, TextWrap.WORD, true));
+    }
+
+    @Test
+    void trailingSpaceFittingInTheLastLineIsKept() {
+        String text = "Hello world again ";
+        int width = ChatTextUtils.getTextWidth("Hello world") + 1;
+
+        List<String> expected = Arrays.asList(ChatColor.RESET + "Hello world", ChatColor.RESET + "again ");
+
+        assertEquals(expected, ChatTextUtils.split(text, 0, width, TextWrap.WORD));
+        assertEquals(expected, stream(text, 0, width, TextWrap.WORD, false));
+    }
+
+    @Test
+    void trailingSpaceIsKeptWhenCharacterWrapped() {
+        String text = "Hello world ";
+        int width = ChatTextUtils.getTextWidth("Hello world") + 1;
+
+        assertEquals(Arrays.asList(ChatColor.RESET + "Hello world", ChatColor.RESET + " "), ChatTextUtils.split(text, 0, width, TextWrap.CHARACTER));
+    }
+
+    @Test
+    void wordsAreKeptWhole() {
+        int width = ChatTextUtils.getTextWidth("Hello world") + 1;
+
+        assertEquals(Arrays.asList(ChatColor.RESET + "Hello", ChatColor.RESET + "worlds"), ChatTextUtils.split("Hello worlds", 0, width, TextWrap.WORD));
+    }
+
+    @Test
+    void negativeSpaceReducesWidth() {
+        FontMetrics.Builder builder = new FontMetrics.Builder();
+        builder.add(NEGATIVE_SPACE, -9, -8);
+        builder.build().register();
+
+        assertEquals(-9, ChatTextUtils.getCharacterWidth(NEGATIVE_SPACE, false));
+        assertEquals(ChatTextUtils.getTextWidth("abc") - 8, ChatTextUtils.getTextWidth("ab\uE001c"));
+
+        // The negative spaces move the second word back over the first one, so both fit in the width of one word.
+        String text = "aaaa\uE001\uE001\uE001aaaa";
+        int width = ChatTextUtils.getTextWidth("aaaa") + 1;
+
+        assertEquals(Collections.singletonList(ChatColor.RESET + text), ChatTextUtils.split(text, 0, width, TextWrap.CHARACTER));
+
+        // A character overflowing the chat still breaks the line, even if negative spaces bring it back afterwards.
+        String overflowing = "aaaaa\uE001\uE001\uE001\uE001aaaa";
+        List<String> expected = Arrays.asList(ChatColor.RESET + "aaaa", ChatColor.RESET + "a\uE001\uE001\uE001\uE001aaaa");
+
+        assertEquals(expected, ChatTextUtils.split(overflowing, 0, width, TextWrap.CHARACTER));
+        assertEquals(expected, stream(overflowing, 0, width, TextWrap.CHARACTER, false));
+    }
+
+    @Test
+    void streamingLayoutMatchesMeasuredLayout() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 2000; i++) {
+            String text = createText(random);
+            int width = 20 + random.nextInt(300);
+            int amount = random.nextInt(4);
+
+            for (TextWrap wrap : TextWrap.values()) {
+                assertEquals(ChatTextUtils.split(text, amount, width, wrap), stream(text, amount, width, wrap, false), text);
+                assertEquals(ChatTextUtils.align(text, amount + 1, width, wrap), stream(text, amount + 1, width, wrap, true), text);
+            }
+        }
+    }
+
+    private static List<String> stream(String text, int amount, int width, TextWrap wrap, boolean aligned) {
+        List<String> lines = new ArrayList<>();
+
+        // A builder is passed so that the streaming overloads are called instead of the string ones.
+        if (aligned)
+            ChatTextUtils.align(new StringBuilder(text), amount, width, wrap, lines::add);
+        else
+            ChatTextUtils.split(new StringBuilder(text), amount, width, wrap, lines::add);
+
+        return lines;
+    }
+
+    private static String pad(String line, int factor, int width) {
+        return ChatColor.RESET + ChatTextUtils.getEmptyLine((width - ChatTextUtils.getTextWidth(line)) / factor) + line;
+    }
+
+    private static String createText(Random random) {
+        StringBuilder builder = new StringBuilder();
+        // Some texts are longer than a streaming window, so lines are also carried from one window to the next.
+        int count = random.nextInt(10) == 0 ? random.nextInt(400) : random.nextInt(30);
+
+        for (int i = 0; i < count; i++) {
+            builder.append(WORDS[random.nextInt(WORDS.length)]);
+
+            int spaces = random.nextInt(4) == 0 ? 2 : 1;
+            for (int j = 0; j < spaces; j++)
+                builder.append(' ');
+        }
+
+        if (random.nextBoolean() && builder.length() > 0)
+            builder.setLength(builder.length() - 1);
+
+        return builder.toString();
+    }
+
+}